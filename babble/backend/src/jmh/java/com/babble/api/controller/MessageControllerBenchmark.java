@@ -0,0 +1,108 @@
+package com.babble.api.controller;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import com.babble.api.request.room.MessageReq;
+import com.babble.common.broker.RoomBroker;
+import com.babble.common.chat.ChatHistory;
+import com.babble.common.chat.ChatRateLimiter;
+import com.babble.common.chat.ChatTranscriptWriter;
+import com.babble.common.chat.CompactSubscriptions;
+import com.babble.common.chat.EmojiAggregator;
+import com.babble.common.room.LiveRoomDirectory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 경로(MessageController.sendMessage)의 처리량을 로그 설정별로 비교한다.
+ * <ul>
+ *   <li>println : 이전처럼 메시지마다 System.out 으로 출력</li>
+ *   <li>off : debug 꺼짐 (운영 기본값)</li>
+ *   <li>debug : debug 켜짐, AsyncAppender 로 100 건에 한 번 기록 (logback-spring.xml 과 같은 큐 설정)</li>
+ * </ul>
+ * 브로커 발행은 아무것도 하지 않고, 빈도 제한은 끄며, 채팅 기록 저장 큐는 가득 차면 버리는 것으로 두어 로그 비용만 남긴다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class MessageControllerBenchmark {
+
+    @Param({"println", "off", "debug"})
+    String logging;
+
+    private MessageController controller;
+    private MessageReq message;
+    private SimpMessageHeaderAccessor headerAccessor;
+
+    @Setup
+    public void setUp() {
+        configureLogging("debug".equals(logging) ? Level.DEBUG : Level.INFO);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RoomBroker roomBroker = (destination, payload, contentType) -> { };
+        controller = new MessageController(roomBroker,
+                new EmojiAggregator(),
+                new ChatRateLimiter(0, 0, 0, 0, 0, 0, 0, 0, meterRegistry),
+                new ChatHistory(new LiveRoomDirectory(), 50, 1000, 1000, 60000, meterRegistry),
+                new ChatTranscriptWriter(null, 10000, 500, 1000, meterRegistry),
+                new CompactSubscriptions("simple"),
+                meterRegistry);
+        controller.chatLogSampleEvery = 100;
+        controller.init();
+
+        message = MessageReq.builder().chatroomId(1L).content("hello world").nickname("babble-user").build();
+        headerAccessor = SimpMessageHeaderAccessor.create();
+    }
+
+    @Benchmark
+    public void sendMessage() {
+        if ("println".equals(logging)) System.out.println(">>>>> 전달 메시지 " + message);
+        controller.sendMessage(message, headerAccessor);
+    }
+
+    private static void configureLogging(Level level) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{HH:mm:ss.SSS} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+        ConsoleAppender<ILoggingEvent> console = new ConsoleAppender<>();
+        console.setContext(context);
+        console.setEncoder(encoder);
+        console.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(1638);
+        async.setNeverBlock(true);
+        async.addAppender(console);
+        async.start();
+
+        root.addAppender(async);
+        root.setLevel(Level.INFO);
+        context.getLogger(MessageController.class).setLevel(level);
+    }
+}
@@ -0,0 +1,86 @@
+package com.babble.common.auth;
+
+import com.babble.api.service.UserService;
+import com.babble.common.util.JwtTokenUtil;
+import com.babble.db.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 인증이 필요한 요청 한 건의 jwt 인증 비용을 principal 캐시 적용 전/후로 비교한다.
+ * 유저 조회는 디비 대신 lookupMicros 만큼 대기하는 UserService 로 흉내 낸다.
+ * <ul>
+ *   <li>before : 서명 검증 두 번(handleError + verifier) 후 매 요청 유저 조회 (이전 JwtAuthenticationFilter 동작)</li>
+ *   <li>uncached : 서명 검증 한 번, 캐시 없음</li>
+ *   <li>cached : 서명 검증 한 번, 같은 토큰은 캐시된 principal 사용</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtAuthenticatorBenchmark {
+
+    private static final String SECRET = "babble-benchmark-secret-babble-benchmark-secret-babble-benchmark-secret";
+    private static final String EMAIL = "bench@babble.com";
+
+    @Param({"0", "500"})
+    long lookupMicros;
+
+    private UserService userService;
+    private JwtAuthenticator cached;
+    private JwtAuthenticator uncached;
+    private String header;
+
+    @Setup
+    public void setUp() {
+        new JwtTokenUtil(SECRET, 60 * 60 * 1000);
+        header = JwtTokenUtil.TOKEN_PREFIX + JwtTokenUtil.getToken(EMAIL);
+        User user = User.builder().email(EMAIL).password("password").build();
+        userService = (UserService) Proxy.newProxyInstance(UserService.class.getClassLoader(),
+                new Class<?>[]{UserService.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("getUserByUserEmail")) throw new UnsupportedOperationException();
+                    if (lookupMicros > 0) LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(lookupMicros));
+                    return user;
+                });
+        cached = authenticator(new JwtPrincipalCache(10000, 600));
+        // maximumSize 0 이면 아무것도 보관하지 않는다.
+        uncached = authenticator(new JwtPrincipalCache(0, 600));
+    }
+
+    @Benchmark
+    public Object before() {
+        JwtTokenUtil.handleError(header);
+        String email = JwtTokenUtil.getVerifier().verify(header.replace(JwtTokenUtil.TOKEN_PREFIX, "")).getSubject();
+        return new BabbleUserDetails(userService.getUserByUserEmail(email));
+    }
+
+    @Benchmark
+    public Object uncached() {
+        return uncached.authenticate(header);
+    }
+
+    @Benchmark
+    public Object cached() {
+        return cached.authenticate(header);
+    }
+
+    private JwtAuthenticator authenticator(JwtPrincipalCache cache) {
+        JwtAuthenticator authenticator = new JwtAuthenticator();
+        authenticator.userService = userService;
+        authenticator.jwtPrincipalCache = cache;
+        authenticator.meterRegistry = new SimpleMeterRegistry();
+        authenticator.init();
+        return authenticator;
+    }
+}
@@ -0,0 +1,146 @@
+package com.babble.common.broker;
+
+import com.babble.api.request.room.MessageReq;
+import com.babble.common.chat.ChatHistory;
+import com.babble.common.room.LiveRoomDirectory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 방 구독자 수에 따른 서버 간 중계 처리량 측정.
+ * 한 JVM 에 loopback 으로 두 노드를 띄우고, 발신 노드에서 BATCH 건을 발행한 뒤
+ * 수신 노드의 simple broker 가 모든 구독자에게 전달을 마칠 때까지를 한 번의 호출로 잰다. (결과는 초당 메시지 수)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RelayRoomBrokerBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final String DESTINATION = "/sub/message/1";
+    private static final long TIMEOUT_MS = 10000;
+
+    @Param({"1", "10", "100"})
+    int subscribers;
+
+    private Node sender;
+    private Node receiver;
+    private MessageReq message;
+
+    @Setup
+    public void setUp() throws IOException {
+        int receiverPort = freePort();
+        receiver = new Node(receiverPort, Collections.emptyList(), subscribers);
+        sender = new Node(freePort(), Collections.singletonList("127.0.0.1:" + receiverPort), 0);
+        message = MessageReq.builder().chatroomId(1L).content("hello world").nickname("babble-user").build();
+        // peer 연결이 맺어질 때까지 발행
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (receiver.delivered.get() == 0) {
+            if (System.currentTimeMillis() > deadline) throw new IllegalStateException("relay peer did not connect");
+            sender.relay.publish(DESTINATION, message, MimeTypeUtils.APPLICATION_JSON);
+            sleep();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        sender.stop();
+        receiver.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void relay() {
+        long target = receiver.delivered.get() + (long) BATCH * subscribers;
+        for (int i = 0; i < BATCH; i++) {
+            sender.relay.publish(DESTINATION, message, MimeTypeUtils.APPLICATION_JSON);
+        }
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (receiver.delivered.get() < target) {
+            if (sender.relay.getDropped() > 0 || System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("relay dropped frames, raise queue-capacity");
+            }
+            Thread.yield();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(50);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // simple broker 와 중계 브로커 한 쌍. 구독자에게 보내는 프레임은 세기만 한다.
+    private static class Node {
+        final AtomicLong delivered = new AtomicLong();
+        final SimpleBrokerMessageHandler broker;
+        final RelayRoomBroker relay;
+
+        Node(int port, List<String> peers, int subscribers) throws IOException {
+            ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+            ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+            ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+            clientOutbound.subscribe(frame -> delivered.incrementAndGet());
+            broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel,
+                    Collections.singletonList("/sub"));
+            broker.start();
+            for (int i = 0; i < subscribers; i++) {
+                SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+                accessor.setSessionId("session-" + i);
+                accessor.setSubscriptionId("sub-0");
+                accessor.setDestination(DESTINATION);
+                clientInbound.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+            }
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            ChatHistory chatHistory = new ChatHistory(new LiveRoomDirectory(), 50, 1000, 1000, 60000, meterRegistry);
+            relay = new RelayRoomBroker(new SimpMessagingTemplate(brokerChannel), new ObjectMapper(), chatHistory,
+                    meterRegistry);
+            relay.bindAddress = "127.0.0.1";
+            relay.port = port;
+            relay.peerAddresses = peers;
+            relay.secret = "benchmark-secret";
+            relay.queueCapacity = BATCH * 4;
+            relay.maxConnections = 4;
+            relay.handshakeTimeoutMs = 5000;
+            relay.start();
+        }
+
+        void stop() throws IOException {
+            relay.stop();
+            broker.stop();
+        }
+    }
+}
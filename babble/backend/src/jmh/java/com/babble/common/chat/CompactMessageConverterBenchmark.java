@@ -0,0 +1,62 @@
+package com.babble.common.chat;
+
+import com.babble.api.request.room.MessageReq;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 프레임 한 건의 직렬화/역직렬화 비용을 compact 포맷과 기존 Jackson JSON 으로 비교한다.
+ * 프레임 크기(바이트)는 setup 에서 한 번 출력한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompactMessageConverterBenchmark {
+
+    @Param({"hello world", "안녕하세요 오늘 방송 재밌네요 😀👍"})
+    String content;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MessageReq message;
+    private byte[] compactFrame;
+    private byte[] jsonFrame;
+
+    @Setup
+    public void setUp() throws IOException {
+        message = MessageReq.builder().chatroomId(1234L).content(content).nickname("babble-user").build();
+        compactFrame = CompactMessageConverter.encode(message).getBytes(StandardCharsets.UTF_8);
+        jsonFrame = objectMapper.writeValueAsBytes(message);
+        System.out.printf("%nframe bytes : compact=%d json=%d%n", compactFrame.length, jsonFrame.length);
+    }
+
+    @Benchmark
+    public byte[] encodeCompact() {
+        return CompactMessageConverter.encode(message).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public Object decodeCompact() {
+        return CompactMessageConverter.decode(new String(compactFrame, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Object decodeJson() throws IOException {
+        return objectMapper.readValue(jsonFrame, MessageReq.class);
+    }
+}
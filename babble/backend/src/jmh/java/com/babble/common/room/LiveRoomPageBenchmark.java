@@ -0,0 +1,78 @@
+package com.babble.common.room;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 진행중인 방 목록의 깊은 페이지 조회 비용을 페이지 번호(offset) 방식과 커서 방식으로 비교한다.
+ * rooms 개의 방을 시청자 수가 고르게 섞이도록 채운 뒤 pageNum 페이지(10개씩)를 조회한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LiveRoomPageBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final String[] CATEGORIES = {"game", "music", "talk", "study", "sports"};
+
+    @Param({"10000"})
+    int rooms;
+
+    @Param({"1", "50"})
+    int pageNum;
+
+    private LiveRoomDirectory directory;
+    private RoomCursor bestCursor;
+    private RoomCursor recentCursor;
+
+    @Setup
+    public void setUp() {
+        directory = new LiveRoomDirectory();
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<String> hashtags = Arrays.asList("babble", "live");
+        for (long id = 1; id <= rooms; id++) {
+            directory.put(new LiveRoom(id, "room " + id, null, CATEGORIES[(int) (id % CATEGORIES.length)],
+                    now.minusSeconds(rooms - id), random.nextInt(500), hashtags));
+        }
+        // 앞 페이지를 커서로 따라가 pageNum 페이지 직전 커서를 만든다.
+        for (int page = 1; page < pageNum; page++) {
+            List<LiveRoom> best = directory.bestAfter("all", bestCursor, PAGE_SIZE);
+            bestCursor = RoomCursor.of(best.get(best.size() - 1));
+            List<LiveRoom> recent = directory.recentAfter("all", recentCursor, PAGE_SIZE);
+            recentCursor = RoomCursor.of(recent.get(recent.size() - 1));
+        }
+    }
+
+    @Benchmark
+    public List<LiveRoom> bestOffset() {
+        return directory.best("all", (pageNum - 1) * PAGE_SIZE, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<LiveRoom> bestCursor() {
+        return directory.bestAfter("all", bestCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<LiveRoom> recentOffset() {
+        return directory.recent("all", (pageNum - 1) * PAGE_SIZE, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<LiveRoom> recentCursor() {
+        return directory.recentAfter("all", recentCursor, PAGE_SIZE);
+    }
+}
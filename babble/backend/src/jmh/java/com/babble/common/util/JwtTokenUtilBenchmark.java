@@ -0,0 +1,68 @@
+package com.babble.common.util;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로그인(토큰 발급)과 인증 필터(토큰 검증) 경로의 초당 처리량 측정.
+ * *Rebuild 는 호출마다 Algorithm/JWTVerifier 를 새로 만들던 이전 JwtTokenUtil 동작이다.
+ * 공유 객체가 여러 스레드에서 안전하게 쓰이는지 보기 위해 4 스레드로 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class JwtTokenUtilBenchmark {
+
+    private static final String SECRET = "babble-benchmark-secret-babble-benchmark-secret-babble-benchmark-secret";
+    private static final String EMAIL = "bench@babble.com";
+    private static final int EXPIRATION = 60 * 60 * 1000;
+
+    private String header;
+
+    @Setup
+    public void setUp() {
+        new JwtTokenUtil(SECRET, EXPIRATION);
+        header = JwtTokenUtil.TOKEN_PREFIX + JwtTokenUtil.getToken(EMAIL);
+    }
+
+    @Benchmark
+    public String issue() {
+        return JwtTokenUtil.getToken(EMAIL);
+    }
+
+    @Benchmark
+    public String issueRebuild() {
+        return JWT.create()
+                .withSubject(EMAIL)
+                .withExpiresAt(JwtTokenUtil.getTokenExpiration(EXPIRATION))
+                .withIssuer(JwtTokenUtil.ISSUER)
+                .withIssuedAt(new Date())
+                .sign(Algorithm.HMAC512(SECRET.getBytes()));
+    }
+
+    @Benchmark
+    public DecodedJWT verify() {
+        return JwtTokenUtil.verify(header);
+    }
+
+    @Benchmark
+    public DecodedJWT verifyRebuild() {
+        return JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
+                .withIssuer(JwtTokenUtil.ISSUER)
+                .build()
+                .verify(header.replace(JwtTokenUtil.TOKEN_PREFIX, ""));
+    }
+}
@@ -2,30 +2,113 @@ package com.babble.api.controller;
 
 import com.babble.api.request.room.EmojiReq;
 import com.babble.api.request.room.MessageReq;
+import com.babble.common.broker.RoomBroker;
+import com.babble.common.chat.ChatHistory;
+import com.babble.common.chat.ChatRateLimiter;
+import com.babble.common.chat.ChatTranscriptWriter;
+import com.babble.common.chat.CompactMessageConverter;
+import com.babble.common.chat.CompactSubscriptions;
+import com.babble.common.chat.EmojiAggregator;
+import com.babble.common.util.LogSampler;
+import com.babble.config.MyChannelInterceptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.annotation.PostConstruct;
+
 @CrossOrigin(origins = "*")
 @Slf4j
 @RequiredArgsConstructor
 @RestController
 public class MessageController {
-    private final SimpMessagingTemplate template;
+    private final RoomBroker roomBroker;
+    private final EmojiAggregator emojiAggregator;
+    private final ChatRateLimiter chatRateLimiter;
+    private final ChatHistory chatHistory;
+    private final ChatTranscriptWriter chatTranscriptWriter;
+    private final CompactSubscriptions compactSubscriptions;
+    private final MeterRegistry meterRegistry;
+
+    // debug 레벨일 때 채팅/이모지 프레임을 몇 건에 한 번 기록할지
+    @Value("${babble.logging.chat-sample-every:100}")
+    long chatLogSampleEvery;
+    private LogSampler chatLogSampler;
+    // 방 번호는 태그로 쓰지 않고 종류별로만 센다. (방별 초당 수는 babble.room.live 로 나눠 본다)
+    private Counter messageFrames;
+    private Counter emojiFrames;
+
+    @PostConstruct
+    public void init() {
+        chatLogSampler = new LogSampler(chatLogSampleEvery);
+        messageFrames = Counter.builder("babble.chat.frames").description("발행한 채팅/이모지 프레임 수")
+                .tag("type", "message").register(meterRegistry);
+        emojiFrames = Counter.builder("babble.chat.frames").description("발행한 채팅/이모지 프레임 수")
+                .tag("type", "emoji").register(meterRegistry);
+    }
 
+    // 입력 프레임은 content-type 에 따라 JSON 또는 compact 포맷으로 읽고,
+    // 출력은 구독 주소별로 포맷을 나눠 각각 한 번만 직렬화한다. (/sub/message-compact, /sub/emoji-compact)
+    // compact 사본은 그 방에 compact 구독자가 있을 때만 발행한다.
     @MessageMapping("/message")
-    public void sendMessage(@Payload MessageReq message) {
-        System.out.println(">>>>> 전달 메시지 " + message);
-        template.convertAndSend("/sub/message/" + message.getChatroomId(), message);
+    public void sendMessage(@Payload MessageReq messageReq, SimpMessageHeaderAccessor headerAccessor) {
+        String nickname = nickname(headerAccessor);
+        MessageReq message = nickname == null ? messageReq : MessageReq.builder()
+                .chatroomId(messageReq.getChatroomId())
+                .content(messageReq.getContent())
+                .nickname(nickname)
+                .build();
+        if (log.isDebugEnabled() && chatLogSampler.sample()) {
+            log.debug("message room={} nickname={} length={}", message.getChatroomId(), message.getNickname(),
+                    message.getContent() == null ? 0 : message.getContent().length());
+        }
+        // 세션 단위 제한은 MyChannelInterceptor 에서, 방 번호는 payload 에 있으므로 방 단위 제한은 여기서 확인
+        if (!chatRateLimiter.tryAcquireRoom(message.getChatroomId(), ChatRateLimiter.Type.MESSAGE)) return;
+        messageFrames.increment();
+        roomBroker.publish("/sub/message/" + message.getChatroomId(), message);
+        String compact = CompactSubscriptions.MESSAGE_DESTINATION + message.getChatroomId();
+        if (compactSubscriptions.hasSubscribers(compact)) {
+            roomBroker.publish(compact, message, CompactMessageConverter.COMPACT);
+        }
+        // 나중에 들어온 사용자를 위해 최근 메시지 보관
+        chatHistory.add(message);
+        chatTranscriptWriter.add(message);
     }
 
     @MessageMapping("/emoji")
-    public void sendEmoji(@Payload EmojiReq emojiReq) {
-        System.out.println(">>>>> 전달 이모지 타입 " + emojiReq);
-        template.convertAndSend("/sub/emoji/" + emojiReq.getRoomId(), emojiReq);
+    public void sendEmoji(@Payload EmojiReq payload, SimpMessageHeaderAccessor headerAccessor) {
+        String nickname = nickname(headerAccessor);
+        EmojiReq emojiReq = nickname == null ? payload : EmojiReq.builder()
+                .roomId(payload.getRoomId())
+                .img(payload.getImg())
+                .nickname(nickname)
+                .build();
+        if (log.isDebugEnabled() && chatLogSampler.sample()) {
+            log.debug("emoji room={} nickname={} img={}", emojiReq.getRoomId(), emojiReq.getNickname(), emojiReq.getImg());
+        }
+        // 프론트의 이모지 이미지가 아닌 값은 방송하지 않는다.
+        if (!EmojiAggregator.isKnown(emojiReq.getImg())) return;
+        if (!chatRateLimiter.tryAcquireRoom(emojiReq.getRoomId(), ChatRateLimiter.Type.EMOJI)) return;
+        emojiFrames.increment();
+        roomBroker.publish("/sub/emoji/" + emojiReq.getRoomId(), emojiReq);
+        String compact = CompactSubscriptions.EMOJI_DESTINATION + emojiReq.getRoomId();
+        if (compactSubscriptions.hasSubscribers(compact)) {
+            roomBroker.publish(compact, emojiReq, CompactMessageConverter.COMPACT);
+        }
+        // /sub/emoji-batch 구독자에게는 window 단위로 묶어서 전송
+        emojiAggregator.add(emojiReq.getRoomId(), emojiReq.getImg());
+    }
+
+    // CONNECT 때 받은 대화명이 있으면 그것을 쓰고, 없으면(이전 클라이언트) payload 의 nickname 을 그대로 쓴다.
+    private String nickname(SimpMessageHeaderAccessor headerAccessor) {
+        if (headerAccessor.getSessionAttributes() == null) return null;
+        return (String) headerAccessor.getSessionAttributes().get(MyChannelInterceptor.NICKNAME_ATTRIBUTE);
     }
 }
\ No newline at end of file
@@ -3,17 +3,24 @@ package com.babble.api.controller;
 
 import com.babble.api.request.room.RoomCreateReq;
 import com.babble.api.request.room.RoomRelationReq;
+import com.babble.api.response.room.RoomCursorRes;
 import com.babble.api.response.room.RoomHostRes;
 import com.babble.api.response.room.RoomRes;
 import com.babble.api.response.room.RoomWaitRes;
 import com.babble.api.service.*;
+import com.babble.api.request.room.MessageReq;
+import com.babble.common.chat.ChatHistory;
 import com.babble.common.model.response.BaseResponseBody;
+import com.babble.common.room.CategoryRegistry;
+import com.babble.common.room.PresenceRegistry;
+import com.babble.common.room.RoomSummary;
+import com.babble.common.util.HashtagNames;
 import com.babble.db.entity.*;
-import com.querydsl.core.Tuple;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.annotations.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.BufferedReader;
@@ -21,7 +28,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -51,6 +58,16 @@ public class RoomController {
     UserHashtagService userHashtagService;
     @Autowired
     EmailService emailService;
+    @Autowired
+    HashtagNotificationService hashtagNotificationService;
+    @Autowired
+    ChatHistory chatHistory;
+    @Autowired
+    PresenceRegistry presenceRegistry;
+    @Autowired
+    CategoryRegistry categoryRegistry;
+    @Autowired
+    MeterRegistry meterRegistry;
 
     @PostMapping(value = "/create" )
     @ApiOperation(value = "방 생성", notes = "방에 대한 정보를 입력한다.")
@@ -72,17 +89,8 @@ public class RoomController {
         //room create
         Room room = roomService.createRoom(category, user, roomCreateReq);
 
-        //설정한 해시태그가 해시태그 테이블에 없을 경우, 추가 후 room_hashtag테이블에 roomId 와 hashtagId 함께 저장
-        String[] tagList = roomCreateReq.getHashtag().split(" ");
-        for (int i = 0; i < tagList.length; i++) {
-            Hashtag tag = hashtagService.getHashtagByHashtagName(tagList[i]);
-            if (tag == null) { //해당 해시태그 없음 -> 해시태그 테이블에 넣고, 룸해시 테이블에 넣고
-                Hashtag hashtag = hashtagService.createHashtag(tagList[i]);
-                RoomHashtag roomHashtag = roomHashtagService.createRoomHashtag(hashtag, room);
-            } else { //해당 해시태그 있을 경우
-                RoomHashtag roomHashtag = roomHashtagService.createRoomHashtag(tag, room);
-            }
-        } //for
+        //설정한 해시태그가 해시태그 테이블에 없을 경우, 한 번에 추가 후 room_hashtag테이블에 roomId 와 hashtagId 함께 저장
+        roomHashtagService.createRoomHashtags(room, HashtagNames.parse(roomCreateReq.getHashtag()));
 
         return ResponseEntity.status(200).body(BaseResponseBody.of(200, room.getId().toString()));
     }
@@ -93,35 +101,16 @@ public class RoomController {
             @ApiResponse(code = 200, message = "성공"),
             @ApiResponse(code = 401, message = "인증 실패"),
             @ApiResponse(code = 404, message = "사용자 없음"),
-            @ApiResponse(code = 500, message = "서버 오류")
+            @ApiResponse(code = 500, message = "서버 오류"),
+            @ApiResponse(code = 503, message = "알림 큐 가득 참")
     })
     public ResponseEntity categoryBestList(@RequestBody @ApiParam(value="입장", required = true) String hashtag) throws Exception {
-        HashMap<String, String> userHashtagMap = new HashMap<String, String>();
-        String[] tagList = hashtag.split(" ");
-        for (int i = 0; i < tagList.length; i++) {
-            // 해당 해시테그를 가지고 있으면서 이메일 알림을 설정한 유저들을 조회
-            List<String> userList = userHashtagService.getUserByHashtag(tagList[i]);
-            System.out.println(" >>>>> userList: " + userList);
-            if(!userList.isEmpty() && userList.size()>0 && userList.get(0)!=null) {
-                for(String userEmail: userList) {
-                    if(userHashtagMap.containsKey(userEmail)) {
-                        String hastagValue = userHashtagMap.get(userEmail);
-                        userHashtagMap.put(userEmail, hastagValue + ", " + tagList[i]);
-                    } else {
-                        userHashtagMap.put(userEmail, tagList[i]);
-                    }
-                }
-            }
-        } //for
-
-        // HashMap에 담긴 정보로 이메일 전송
-        if(!userHashtagMap.isEmpty() && userHashtagMap.size()>0) {
-            for(String userEmail: userHashtagMap.keySet()) {
-                System.out.println(userEmail + " "  + userHashtagMap.get(userEmail) + " 이메일 전송");
-                emailService.sendHashtagMessage(userEmail, userHashtagMap.get(userEmail));
-            }
+        // 구독자 조회와 발송은 알림 워커에서 처리하고, 요청에는 작업 id만 바로 응답
+        String jobId = hashtagNotificationService.submit(hashtag);
+        if (jobId == null) {
+            return ResponseEntity.status(503).body(BaseResponseBody.of(503, "알림 요청이 많아 처리할 수 없습니다."));
         }
-        return ResponseEntity.status(200).body(BaseResponseBody.of(200, "Success"));
+        return ResponseEntity.status(200).body(BaseResponseBody.of(200, jobId));
     }
 
     @PostMapping("/enter")
@@ -136,9 +125,26 @@ public class RoomController {
             @RequestBody @ApiParam(value="입장", required = true)RoomRelationReq roomRelationReq) {
 
         User user = userService.getUserByUserEmail(roomRelationReq.getEmail());
-        Room room = roomService.getRoomByRoomId(roomRelationReq.getRoomId());
-        UserRoom userRoom = userRoomService.createUserRoom(user, room);
-        RoomHistory roomHistory = roomHistoryService.createRoomHistory(user, room);
+        // 방 존재/진행 여부는 캐시된 요약 정보와 진행중인 방 목록으로 확인하고, 시청 내역에는 조회 없이 참조만 연결
+        RoomSummary summary = roomService.getRoomSummary(roomRelationReq.getRoomId());
+        if (summary == null) {
+            return ResponseEntity.status(404).body(BaseResponseBody.of(404, "존재하지 않는 방입니다."));
+        }
+        if (!summary.isActivate() || !roomService.isLive(roomRelationReq.getRoomId())) {
+            return ResponseEntity.status(404).body(BaseResponseBody.of(404, "종료된 방입니다."));
+        }
+        Room room = roomService.getRoomReference(roomRelationReq.getRoomId());
+        // 참여 정보는 메모리에서 바로 갱신하고 user_room 에는 비동기로 반영 (그 사이 종료된 방이면 입장하지 않음)
+        if (!presenceRegistry.enter(user.getId(), room.getId())) {
+            return ResponseEntity.status(404).body(BaseResponseBody.of(404, "종료된 방입니다."));
+        }
+        // 입장한 경우에만 시청 내역을 남긴다. (종료된 방에 닫히지 않는 내역이 생기지 않도록)
+        // 내역을 남기는 사이 방이 종료됐다면 종료 처리가 이 내역을 놓쳤을 수 있으므로 바로 닫는다.
+        roomHistoryService.createRoomHistory(user, room);
+        if (!roomService.isLive(room.getId())) {
+            roomHistoryService.closeOpenHistory(Collections.singleton(user.getId()));
+            return ResponseEntity.status(404).body(BaseResponseBody.of(404, "종료된 방입니다."));
+        }
 
         return ResponseEntity.status(200).body(BaseResponseBody.of(200, "Success"));
     }
@@ -153,11 +159,11 @@ public class RoomController {
     })
     public ResponseEntity<? extends BaseResponseBody> roomExit(@RequestBody @ApiParam(value="퇴장", required = true)RoomRelationReq roomRelationReq) {
         User user = userService.getUserByUserEmail(roomRelationReq.getEmail());
-        Room room = roomService.getRoomByRoomId(roomRelationReq.getRoomId());
+        Room room = roomService.getRoomReference(roomRelationReq.getRoomId());
         roomHistoryService.roomExit(user,room);
 
-        //방나기면 user_room 데이터 삭제
-        userRoomService.deleteUserRoom(user);
+        //방나기면 참여 정보 삭제 (user_room 에는 비동기로 반영)
+        presenceRegistry.exit(user.getId());
         return ResponseEntity.status(200).body(BaseResponseBody.of(200, "Success"));
     }
 
@@ -174,10 +180,9 @@ public class RoomController {
     public ResponseEntity categoryBestList(@PathVariable("categoryName") @ApiParam(value="카테고리명", required = true)String categoryName,
                                            @PathVariable("pageNum") @ApiParam(value="페이지번호", required = true)int pageNum) throws IOException {
         pageNum= (pageNum-1)*10;
-        List<Tuple> roomInfo;
-        if(categoryName.equals("all")) roomInfo = roomService.getBestRoomInfo(pageNum);
-        else roomInfo = roomService.getCategoryBestRoomInfo(categoryName,pageNum);
-        List<RoomRes> categoryList = roomService.roomList(roomInfo);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<RoomRes> categoryList = roomService.getLiveBestRoomList(categoryName, pageNum);
+        sample.stop(listTimer("best", categoryName));
         return ResponseEntity.status(200).body(categoryList);
     }
 
@@ -192,8 +197,9 @@ public class RoomController {
     public ResponseEntity searchList(@PathVariable("searchName") @ApiParam(value="검색할 단어", required = true)String searchName,
                                      @PathVariable("pageNum") @ApiParam(value="페이지번호", required = true)int pageNum) throws IOException {
         pageNum= (pageNum-1)*10;
-        List<Tuple> roomInfo = roomService.searchRoomList(searchName, pageNum);
-        List<RoomRes> searchRoomList = roomService.roomList(roomInfo);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<RoomRes> searchRoomList = roomService.searchLiveRoomList(searchName, pageNum);
+        sample.stop(searchTimer("page"));
         return ResponseEntity.status(200).body(searchRoomList);
     }
 
@@ -208,14 +214,72 @@ public class RoomController {
     public ResponseEntity categoryRecentList(@PathVariable("categoryName") @ApiParam(value="카테고리명", required = true)String categoryName,
                                              @PathVariable("pageNum") @ApiParam(value="페이지번호", required = true)int pageNum) throws IOException {
         pageNum= (pageNum-1)*10;
-        List<Tuple> roomInfo;
-        if(categoryName.equals("all")) roomInfo = roomService.getRecentRoomInfo(pageNum);
-        else roomInfo = roomService.getCategoryRecentRoomInfo(categoryName,pageNum);
-        List<RoomRes> categoryList = roomService.roomList(roomInfo);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<RoomRes> categoryList = roomService.getLiveRecentRoomList(categoryName, pageNum);
+        sample.stop(listTimer("recent", categoryName));
         return ResponseEntity.status(200).body(categoryList);
     }
 
-    @Transactional
+    @GetMapping("/cursor/{categoryName}/best")
+    @ApiOperation(value = "카테고리별 인기 방 정보 (커서)", notes = "커서 이후의 방 정보를 인기순으로 보여준다.")
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "성공"),
+            @ApiResponse(code = 400, message = "잘못된 커서"),
+            @ApiResponse(code = 500, message = "서버 오류")
+    })
+    public ResponseEntity categoryBestCursorList(@PathVariable("categoryName") @ApiParam(value="카테고리명", required = true)String categoryName,
+                                                 @RequestParam(value = "cursor", required = false) @ApiParam(value="커서")String cursor) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            RoomCursorRes roomCursorRes = roomService.getLiveBestRoomPage(categoryName, cursor);
+            return ResponseEntity.status(200).body(roomCursorRes);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(400).body(BaseResponseBody.of(400, "잘못된 커서입니다."));
+        } finally {
+            sample.stop(listTimer("cursor-best", categoryName));
+        }
+    }
+
+    @GetMapping("/cursor/{categoryName}/recent")
+    @ApiOperation(value = "카테고리별 최신 방 정보 (커서)", notes = "커서 이후의 방 정보를 최신순으로 보여준다.")
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "성공"),
+            @ApiResponse(code = 400, message = "잘못된 커서"),
+            @ApiResponse(code = 500, message = "서버 오류")
+    })
+    public ResponseEntity categoryRecentCursorList(@PathVariable("categoryName") @ApiParam(value="카테고리명", required = true)String categoryName,
+                                                   @RequestParam(value = "cursor", required = false) @ApiParam(value="커서")String cursor) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            RoomCursorRes roomCursorRes = roomService.getLiveRecentRoomPage(categoryName, cursor);
+            return ResponseEntity.status(200).body(roomCursorRes);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(400).body(BaseResponseBody.of(400, "잘못된 커서입니다."));
+        } finally {
+            sample.stop(listTimer("cursor-recent", categoryName));
+        }
+    }
+
+    @GetMapping("/cursor/search/{searchName}")
+    @ApiOperation(value = "검색한 방 정보 (커서)", notes = "검색어가 포함된 방의 정보를 커서 이후부터 보여준다.")
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "성공"),
+            @ApiResponse(code = 400, message = "잘못된 커서"),
+            @ApiResponse(code = 500, message = "서버 오류")
+    })
+    public ResponseEntity searchCursorList(@PathVariable("searchName") @ApiParam(value="검색할 단어", required = true)String searchName,
+                                           @RequestParam(value = "cursor", required = false) @ApiParam(value="커서")String cursor) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            RoomCursorRes roomCursorRes = roomService.searchRoomPage(searchName, cursor);
+            return ResponseEntity.status(200).body(roomCursorRes);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(400).body(BaseResponseBody.of(400, "잘못된 커서입니다."));
+        } finally {
+            sample.stop(searchTimer("cursor"));
+        }
+    }
+
     @PostMapping("/{roomId}")
     @ApiOperation(value = "방 종료", notes = "화상회의 방 종료하기")
     @ApiResponses({
@@ -226,10 +290,8 @@ public class RoomController {
     })
     public ResponseEntity roomClose(@PathVariable("roomId") @ApiParam(value="roomId", required = true) Long roomId,
                                     @RequestBody @ApiParam(value="퇴장", required = true) Long maxView) {
+        // 참여 유저, 해시태그 연결, 시청 내역 정리까지 roomClose 에서 비동기로 일괄 처리
         roomService.roomClose(roomId, maxView);
-        userRoomService.deleteUserRoom(roomId);
-        roomHashtagService.deleteRoomHashtag(roomId);
-        roomHistoryService.updateEndTime(roomId);
         return ResponseEntity.status(200).body("success");
     }
 
@@ -242,7 +304,10 @@ public class RoomController {
             @ApiResponse(code = 500, message = "서버 오류")
     })
     public ResponseEntity roomInfo(@PathVariable("roomId") @ApiParam(value="roomId", required = true) Long roomId) {
-        Room room = roomService.getRoomByRoomId(roomId);
+        RoomSummary room = roomService.getRoomSummary(roomId);
+        if (room == null) {
+            return ResponseEntity.status(404).body(BaseResponseBody.of(404, "존재하지 않는 방입니다."));
+        }
         RoomWaitRes roomWaitRes = RoomWaitRes.builder()
                 .id(room.getId())
                 .title(room.getTitle())
@@ -253,6 +318,17 @@ public class RoomController {
         return ResponseEntity.status(200).body(roomWaitRes);
     }
 
+    @GetMapping("/{roomId}/messages")
+    @ApiOperation(value = "최근 채팅", notes = "방에 들어오기 전에 오간 최근 채팅 메시지를 오래된 순으로 보여준다.")
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "성공"),
+            @ApiResponse(code = 500, message = "서버 오류")
+    })
+    public ResponseEntity recentMessages(@PathVariable("roomId") @ApiParam(value="roomId", required = true) Long roomId) {
+        List<MessageReq> messages = chatHistory.recent(roomId);
+        return ResponseEntity.status(200).body(messages);
+    }
+
     @GetMapping("/host/{roomId}")
     @ApiOperation(value = "호스트포함 방정보", notes = "호스트 및 방 제목 보여주기")
     @ApiResponses({
@@ -262,7 +338,10 @@ public class RoomController {
             @ApiResponse(code = 500, message = "서버 오류")
     })
     public ResponseEntity hostRoomInfo(@PathVariable("roomId") @ApiParam(value="roomId", required = true) Long roomId) {
-        Room room = roomService.getRoomByRoomId(roomId);
+        RoomSummary room = roomService.getRoomSummary(roomId);
+        if (room == null) {
+            return ResponseEntity.status(404).body(BaseResponseBody.of(404, "존재하지 않는 방입니다."));
+        }
         RoomHostRes roomHostRes = RoomHostRes.builder()
                 .hostId(room.getHostId())
                 .title(room.getTitle())
@@ -294,4 +373,21 @@ public class RoomController {
 
         return result.toString();
     }
+
+    // 태그 종류가 늘어나지 않도록 카테고리는 등록된 이름, all, unknown 중 하나로만 기록
+    private Timer listTimer(String endpoint, String categoryName) {
+        String category = "all".equals(categoryName) || categoryRegistry.contains(categoryName) ? categoryName : "unknown";
+        return Timer.builder("babble.room.list")
+                .description("방 목록 조회 시간")
+                .tags("endpoint", endpoint, "category", category)
+                .register(meterRegistry);
+    }
+
+    // 검색어는 태그로 남기지 않는다.
+    private Timer searchTimer(String endpoint) {
+        return Timer.builder("babble.room.search")
+                .description("방 검색 시간")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
 }
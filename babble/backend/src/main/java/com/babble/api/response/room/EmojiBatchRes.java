@@ -0,0 +1,22 @@
+package com.babble.api.response.room;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 이모지 묶음 전송 (/sub/emoji-batch/{roomId}) 메시지 정의.
+ * 일정 시간 동안 들어온 이모지를 종류(img)별 개수로 묶어서 한 번에 보낸다.
+ */
+@Getter
+public class EmojiBatchRes {
+    Long roomId;
+    Map<String, Long> counts;
+
+    @Builder
+    public EmojiBatchRes(Long roomId, Map<String, Long> counts) {
+        this.roomId = roomId;
+        this.counts = counts;
+    }
+}
@@ -0,0 +1,28 @@
+package com.babble.api.response.room;
+
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Room 목록 커서 조회 API ([GET] /api/v1/room/cursor/) 요청에 대한 응답값 정의.
+ */
+@Getter
+@ApiModel("RoomCursorResponse")
+public class RoomCursorRes {
+    @ApiModelProperty(name="rooms")
+    List<RoomRes> rooms;
+    // 다음 페이지 요청 시 전달할 커서, 마지막 페이지이면 null
+    @ApiModelProperty(name="next_cursor")
+    String nextCursor;
+
+    @Builder
+    public RoomCursorRes(List<RoomRes> rooms, String nextCursor){
+        this.rooms = rooms;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -8,4 +8,5 @@ import com.babble.db.entity.Category;
 
 public interface CategoryService {
     Category getCategoryByCategoryName(String name);
+    void refreshCategories();
 }
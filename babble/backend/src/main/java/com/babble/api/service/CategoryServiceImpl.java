@@ -1,7 +1,7 @@
 package com.babble.api.service;
 
+import com.babble.common.room.CategoryRegistry;
 import com.babble.db.entity.Category;
-import com.babble.db.repository.CategoryRepositorySupport;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -12,11 +12,17 @@ import org.springframework.stereotype.Service;
 public class CategoryServiceImpl implements CategoryService {
 
     @Autowired
-    CategoryRepositorySupport categoryRepositorySupport;
+    CategoryRegistry categoryRegistry;
 
+    // 매번 조회하지 않고 서버 시작 시 읽어둔 카테고리 목록에서 찾는다.
     @Override
     public Category getCategoryByCategoryName(String name) {
-        Category category = categoryRepositorySupport.findCategoryByCategoryName(name);
+        Category category = categoryRegistry.get(name);
         return category;
     }
+
+    @Override
+    public void refreshCategories() {
+        categoryRegistry.refresh();
+    }
 }
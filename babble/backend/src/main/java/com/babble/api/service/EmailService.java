@@ -1,7 +1,10 @@
 package com.babble.api.service;
 
+import java.util.Map;
+
 public interface EmailService {
     String sendSimpleMessage(String to)throws Exception;
     void sendHashtagMessage(String to, String hashtag) throws Exception;
+    void sendHashtagMessages(Map<String, String> userHashtagMap) throws Exception;
     String sendTempPassword(String email) throws  Exception;
 }
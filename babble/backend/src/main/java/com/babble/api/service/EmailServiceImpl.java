@@ -1,16 +1,19 @@
 package com.babble.api.service;
 
+import java.util.Map;
 import java.util.Random;
 
 import javax.mail.Message.RecipientType;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 public class EmailServiceImpl implements EmailService {
 
@@ -87,7 +90,7 @@ public class EmailServiceImpl implements EmailService {
 
     // 방이 생성되면 해당 해시테그를 가진 유저들에게 이메일을 보낸다.
     private MimeMessage createHashTagMessage(String to, String hashtag) throws Exception{
-        System.out.println("보내는 대상 : "+ to);
+        log.debug("보내는 대상 : {}", to);
         MimeMessage  message = emailSender.createMimeMessage();
 
         message.addRecipients(RecipientType.TO, to);//보내는 대상
@@ -120,6 +123,17 @@ public class EmailServiceImpl implements EmailService {
         }
     }
 
+    // 여러 명에게 보낼 알림 메일을 한 번의 SMTP 연결로 전송한다. 실패한 메일은 MailSendException 에 담겨 전달된다.
+    @Override
+    public void sendHashtagMessages(Map<String, String> userHashtagMap) throws Exception {
+        MimeMessage[] messages = new MimeMessage[userHashtagMap.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : userHashtagMap.entrySet()) {
+            messages[i++] = createHashTagMessage(entry.getKey(), entry.getValue());
+        }
+        emailSender.send(messages);
+    }
+
     @Override
     public String sendTempPassword(String email) throws Exception {
         // 임시 비밀번호 생성
@@ -0,0 +1,9 @@
+package com.babble.api.service;
+
+/**
+ *	관심 해시태그 이메일 알림 발송 관련 서비스 인터페이스 정의.
+ */
+public interface HashtagNotificationService {
+    // 알림 작업을 큐에 넣고 작업 id 반환, 큐가 가득 차면 null
+    String submit(String hashtag);
+}
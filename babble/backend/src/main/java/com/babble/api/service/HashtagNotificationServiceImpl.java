@@ -0,0 +1,208 @@
+package com.babble.api.service;
+
+import com.babble.common.util.HashtagNames;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ *	관심 해시태그 이메일 알림 발송 서비스 구현 정의.
+ *	요청 스레드에서는 작업만 큐에 넣고, 구독자 조회는 제한된 크기의 워커 풀, 발송은 별도의 발송 풀에서 처리한다.
+ *	구독자 조회(스트리밍 커서)가 끝난 뒤에 묶음을 발송 풀에 넘기므로, 발송을 기다리는 동안 디비 연결과 커서를 붙잡지 않는다.
+ *	발송 풀에 넘길 수 있는 묶음 수는 send-permits 로 제한하고, 다 차면 조회 워커가 자리가 날 때까지 기다린다.
+ *	한 사용자에게는 일치한 해시태그를 모아 한 통만 보내고, 여러 통을 한 번의 SMTP 연결로 묶어 보낸다.
+ */
+@Slf4j
+@Service("hashtagNotificationService")
+public class HashtagNotificationServiceImpl implements HashtagNotificationService {
+
+    @Autowired
+    UserHashtagService userHashtagService;
+
+    @Autowired
+    EmailService emailService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${notification.email.workers:2}")
+    int workers;
+
+    @Value("${notification.email.queue-capacity:100}")
+    int queueCapacity;
+
+    @Value("${notification.email.batch-size:50}")
+    int batchSize;
+
+    @Value("${notification.email.send-permits:8}")
+    int sendPermits;
+
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor sender;
+    private Semaphore sendSlots;
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private Counter rejectedCounter;
+    private Timer queueLag;
+    private Timer sendLag;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("hashtag-mail-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        // 대기 묶음 수는 sendSlots 로 제한하므로 큐는 제한하지 않는다.
+        sender = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("hashtag-mail-send-%d").setDaemon(true).build());
+        sendSlots = new Semaphore(sendPermits);
+
+        Gauge.builder("babble.email.queue.depth", executor, e -> e.getQueue().size())
+                .description("대기중인 이메일 알림 작업 수")
+                .register(meterRegistry);
+        Gauge.builder("babble.email.send.depth", sender, e -> e.getQueue().size())
+                .description("발송을 기다리는 이메일 묶음 수")
+                .register(meterRegistry);
+        sentCounter = Counter.builder("babble.email.sent").register(meterRegistry);
+        failedCounter = Counter.builder("babble.email.failed").register(meterRegistry);
+        rejectedCounter = Counter.builder("babble.email.rejected").register(meterRegistry);
+        queueLag = Timer.builder("babble.email.queue.lag")
+                .description("이메일 알림 작업이 큐에 들어간 뒤 워커가 시작하기까지 걸린 시간")
+                .register(meterRegistry);
+        sendLag = Timer.builder("babble.email.send.lag")
+                .description("이메일 묶음이 발송 풀에 들어간 뒤 발송을 시작하기까지 걸린 시간")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        sender.shutdown();
+        sender.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String submit(String hashtag) {
+        String jobId = UUID.randomUUID().toString();
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                queueLag.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                resolve(jobId, hashtag);
+            });
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            log.warn("hashtag notification rejected, queue is full");
+            return null;
+        }
+        return jobId;
+    }
+
+    // 모든 해시태그의 구독자를 한 번의 쿼리로 스트리밍 조회해 묶음으로 모은 뒤, 조회가 끝나면 발송 작업 등록
+    private void resolve(String jobId, String hashtag) {
+        // 방 생성 시 저장과 같은 규칙으로 정리 (연속 공백, 255자 자르기, 대소문자 중복 제거)
+        Set<String> tags = new LinkedHashSet<>(HashtagNames.parse(hashtag));
+
+        BatchCollector collector = new BatchCollector();
+        userHashtagService.streamUserByHashtags(tags, collector);
+        collector.flush();
+        log.info("hashtag notification {} : {} recipients", jobId, collector.recipients);
+        for (Map<String, String> batch : collector.batches) {
+            dispatch(jobId, batch);
+        }
+    }
+
+    // 발송 묶음을 발송 풀에 넘긴다. 조회 트랜잭션이 끝난 뒤에 호출되므로 기다리는 동안 디비 연결을 붙잡지 않는다.
+    // 발송 중인 묶음이 send-permits 만큼 쌓여 있으면 자리가 날 때까지 기다린다 (조회 워커에서 직접 발송하지 않음)
+    private void dispatch(String jobId, Map<String, String> batch) {
+        try {
+            sendSlots.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failedCounter.increment(batch.size());
+            log.warn("hashtag notification {} : interrupted, {} mails dropped", jobId, batch.size());
+            return;
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            sender.execute(() -> {
+                try {
+                    sendLag.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    send(jobId, batch);
+                } finally {
+                    sendSlots.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            sendSlots.release();
+            failedCounter.increment(batch.size());
+            log.warn("hashtag notification {} : sender is shut down, {} mails dropped", jobId, batch.size());
+        }
+    }
+
+    private void send(String jobId, Map<String, String> batch) {
+        int total = batch.size();
+        try {
+            emailService.sendHashtagMessages(batch);
+            sentCounter.increment(total);
+        } catch (MailSendException ex) {
+            int failed = ex.getFailedMessages().isEmpty() ? total : ex.getFailedMessages().size();
+            sentCounter.increment(total - failed);
+            failedCounter.increment(failed);
+            log.error("hashtag notification {} : {} of {} mails failed", jobId, failed, total, ex);
+        } catch (MailException ex) {
+            failedCounter.increment(total);
+            log.error("hashtag notification {} : {} mails failed", jobId, total, ex);
+        } catch (Exception ex) {
+            failedCounter.increment(total);
+            log.error("hashtag notification {} : could not create messages", jobId, ex);
+        }
+    }
+
+    // 조회되는 구독자를 batchSize 만큼씩 묶어 모은다.
+    private class BatchCollector implements BiConsumer<String, List<String>> {
+        private final List<Map<String, String>> batches = new ArrayList<>();
+        private Map<String, String> batch = new LinkedHashMap<>();
+        private int recipients = 0;
+
+        @Override
+        public void accept(String userEmail, List<String> matched) {
+            batch.put(userEmail, String.join(", ", matched));
+            recipients++;
+            if (batch.size() >= batchSize) flush();
+        }
+
+        void flush() {
+            if (batch.isEmpty()) return;
+            batches.add(batch);
+            batch = new LinkedHashMap<>();
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.babble.api.service;
 
+import com.babble.common.util.HashtagNames;
 import com.babble.db.entity.Hashtag;
 import com.babble.db.repository.HashtagRepository;
 import com.babble.db.repository.HashtagRepositorySupport;
 import com.babble.db.repository.UserHashtagRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  *	해시태그 관련 비즈니스 로직 처리를 위한 서비스 구현 정의.
@@ -21,6 +31,17 @@ public class HashtagServiceImpl implements HashtagService {
     @Autowired
     HashtagRepositorySupport hashtagRepositorySupport;
 
+    @Value("${babble.hashtag.cache.max-size:10000}")
+    long cacheMaxSize;
+
+    // 해시태그 이름 -> id (해시태그는 삭제되지 않으므로 만료 없이 크기로만 제한)
+    private Cache<String, Long> hashtagIds;
+
+    @PostConstruct
+    public void init() {
+        hashtagIds = CacheBuilder.newBuilder().maximumSize(cacheMaxSize).build();
+    }
+
     @Override
     public Hashtag createHashtag(String name) {
         Hashtag hashtag = new Hashtag();
@@ -35,4 +56,44 @@ public class HashtagServiceImpl implements HashtagService {
         Hashtag hashtag = hashtagRepositorySupport.findHashtagByHashtagName(name);
         return hashtag;
     }
+
+    // 캐시에 없는 이름만 IN 쿼리로 조회하고, 그래도 없는 이름은 한 번에 추가한 뒤 다시 조회한다.
+    // 다른 요청과 동시에 같은 이름을 추가해도 insert ignore 로 한 행만 남고, 재조회는 커밋된 행을 읽도록 트랜잭션 없이 실행한다.
+    // 디비 collation 이 대소문자를 구분하지 않아 조회된 이름이 요청한 이름과 다를 수 있으므로, 캐시와 결과 비교는 HashtagNames.key 로 한다.
+    @Override
+    public Map<String, Long> getOrCreateHashtagIds(Collection<String> names) {
+        Map<String, Long> result = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : names) {
+            Long id = hashtagIds.getIfPresent(HashtagNames.key(name));
+            if (id != null) result.put(name, id);
+            else missing.add(name);
+        }
+        if (missing.isEmpty()) return result;
+
+        Map<String, Long> found = byKey(hashtagRepositorySupport.findHashtagIdByNames(missing));
+        Set<String> created = new LinkedHashSet<>();
+        for (String name : missing) {
+            if (!found.containsKey(HashtagNames.key(name))) created.add(name);
+        }
+        if (!created.isEmpty()) {
+            hashtagRepositorySupport.insertHashtagIgnore(created);
+            found.putAll(byKey(hashtagRepositorySupport.findHashtagIdByNames(created)));
+        }
+        for (String name : missing) {
+            Long id = found.get(HashtagNames.key(name));
+            if (id == null) continue;
+            hashtagIds.put(HashtagNames.key(name), id);
+            result.put(name, id);
+        }
+        return result;
+    }
+
+    private static Map<String, Long> byKey(Map<String, Long> idByName) {
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<String, Long> entry : idByName.entrySet()) {
+            result.put(HashtagNames.key(entry.getKey()), entry.getValue());
+        }
+        return result;
+    }
 }
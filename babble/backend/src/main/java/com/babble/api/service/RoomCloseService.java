@@ -0,0 +1,5 @@
+package com.babble.api.service;
+
+public interface RoomCloseService {
+    void submit(Long roomId, Long maxView);
+}
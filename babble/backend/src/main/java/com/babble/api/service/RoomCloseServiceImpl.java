@@ -0,0 +1,101 @@
+package com.babble.api.service;
+
+import com.babble.db.repository.RoomRepositorySupport;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *	방 종료 디비 정리 서비스 구현 정의.
+ *	방 상태 변경, 참여 유저/해시태그 연결 삭제, 시청 내역 종료를 행 단위가 아닌 update/delete 문 4개로 한 트랜잭션에서 처리한다.
+ *	요청 스레드에서는 작업만 넘기고 응답하며, 정리는 별도 스레드에서 진행한다.
+ */
+@Slf4j
+@Service("roomCloseService")
+public class RoomCloseServiceImpl implements RoomCloseService {
+
+    @Autowired
+    RoomRepositorySupport roomRepositorySupport;
+
+    @Autowired
+    UserRoomService userRoomService;
+
+    @Autowired
+    RoomHashtagService roomHashtagService;
+
+    @Autowired
+    RoomHistoryService roomHistoryService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${babble.room.close.queue-capacity:1000}")
+    int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate transactionTemplate;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("room-close-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("babble.room.close.queue.depth", executor, e -> e.getQueue().size())
+                .description("대기중인 방 종료 정리 작업 수")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("babble.room.close.failed").register(meterRegistry);
+    }
+
+    // 종료 시 남은 정리 작업은 마저 처리한다.
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void submit(Long roomId, Long maxView) {
+        try {
+            executor.execute(() -> close(roomId, maxView));
+        } catch (RejectedExecutionException ex) {
+            // 큐가 가득 차면 요청 스레드에서 바로 처리
+            close(roomId, maxView);
+        }
+    }
+
+    private void close(Long roomId, Long maxView) {
+        try {
+            transactionTemplate.execute(status -> {
+                roomRepositorySupport.closeRoom(roomId, maxView);
+                userRoomService.deleteUserRoom(roomId);
+                roomHashtagService.deleteRoomHashtag(roomId);
+                roomHistoryService.updateEndTime(roomId);
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            failedCounter.increment();
+            log.error("failed to close room {}", roomId, ex);
+        }
+    }
+}
@@ -5,10 +5,14 @@ import com.babble.db.entity.Room;
 import com.babble.db.entity.RoomHashtag;
 import com.babble.db.entity.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface RoomHashtagService {
     RoomHashtag createRoomHashtag(Hashtag hashtag, Room room);
+    void createRoomHashtags(Room room, Collection<String> hashtagNames);
     List<Hashtag> findHashtagByRoomHashtagRoomId(Long roomId);
+    Map<Long, List<String>> findHashtagNameByRoomIds(List<Long> roomIds);
     void deleteRoomHashtag(Long roomId);
 }
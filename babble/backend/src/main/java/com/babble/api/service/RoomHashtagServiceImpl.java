@@ -1,5 +1,6 @@
 package com.babble.api.service;
 
+import com.babble.common.util.HashtagNames;
 import com.babble.db.entity.Hashtag;
 import com.babble.db.entity.Room;
 import com.babble.db.entity.RoomHashtag;
@@ -9,8 +10,12 @@ import com.babble.db.repository.RoomHashtagRepositorySupport;
 import com.babble.db.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  *	룸해시태그 관련 비즈니스 로직 처리를 위한 서비스 구현 정의.
@@ -23,6 +28,9 @@ public class RoomHashtagServiceImpl implements RoomHashtagService {
 
     @Autowired
     RoomHashtagRepositorySupport roomHashtagRepositorySupport;
+
+    @Autowired
+    HashtagService hashtagService;
     @Override
     public RoomHashtag createRoomHashtag(Hashtag hashtag, Room room) {
         RoomHashtag roomHashtag = new RoomHashtag();
@@ -30,6 +38,16 @@ public class RoomHashtagServiceImpl implements RoomHashtagService {
         return roomHashtagRepository.save(roomHashtag);
     }
 
+    // 해시태그 id 를 한 번에 확보한 뒤 room_hashtag 연결을 한 번의 batch 로 저장
+    @Override
+    public void createRoomHashtags(Room room, Collection<String> hashtagNames) {
+        List<String> names = HashtagNames.normalize(hashtagNames);
+        if (names.isEmpty()) return;
+        Map<String, Long> hashtagIds = hashtagService.getOrCreateHashtagIds(names);
+        // 이미 정리된 이름이지만, 같은 행을 가리키는 id 가 겹치지 않도록 id 기준으로 한 번 더 중복 제거
+        roomHashtagRepositorySupport.insertRoomHashtag(room.getId(), new LinkedHashSet<>(hashtagIds.values()));
+    }
+
     @Override
     public List<Hashtag> findHashtagByRoomHashtagRoomId(Long roomId) {
        List<Hashtag> Hashtag = roomHashtagRepositorySupport.findHashtagByRoomId(roomId);
@@ -37,10 +55,13 @@ public class RoomHashtagServiceImpl implements RoomHashtagService {
     }
 
     @Override
+    public Map<Long, List<String>> findHashtagNameByRoomIds(List<Long> roomIds) {
+        return roomHashtagRepositorySupport.findHashtagNameByRoomIds(roomIds);
+    }
+
+    @Override
+    @Transactional
     public void deleteRoomHashtag(Long roomId) {
-        List<RoomHashtag> roomHashtag = roomHashtagRepositorySupport.findRoomHashtagByRoomId(roomId);
-        for(int i=0;i<roomHashtag.size();i++){
-            roomHashtagRepository.delete(roomHashtag.get(i));
-        }
+        roomHashtagRepositorySupport.deleteRoomHashtagByRoomId(roomId);
     }
 }
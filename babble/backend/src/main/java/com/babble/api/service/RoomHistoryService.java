@@ -5,6 +5,7 @@ import com.babble.db.entity.RoomHistory;
 import com.babble.db.entity.User;
 import com.querydsl.core.Tuple;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface RoomHistoryService {
@@ -14,4 +15,5 @@ public interface RoomHistoryService {
     List<Tuple> getUserCreateRoomHistory(User user);
     void updateEndTime(Long roomId);
     void deleteUserHistory(User user);
+    void closeOpenHistory(Collection<Long> userIds);
 }
@@ -9,8 +9,10 @@ import com.babble.db.repository.RoomHistoryRepositorySupport;
 import com.querydsl.core.Tuple;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -30,7 +32,6 @@ public class RoomHistoryServiceImpl implements RoomHistoryService {
     public RoomHistory createRoomHistory(User user, Room room) {
         LocalDateTime date = LocalDateTime.now();
         RoomHistory history = roomHistoryRepositorySupport.findRoomHistoryByUserEmail(user, room);
-        System.out.println(history);
         if(history!=null){
             roomHistoryRepository.delete(history);
         }
@@ -59,16 +60,19 @@ public class RoomHistoryServiceImpl implements RoomHistoryService {
     }
 
     @Override
+    @Transactional
     public void updateEndTime(Long roomId) {
-        List<RoomHistory> roomHistories = roomHistoryRepositorySupport.findRoomHistoryByRoomId(roomId);
-        for(int i=0;i<roomHistories.size();i++){
-            roomHistories.get(i).roomExit();
-            roomHistoryRepository.save(roomHistories.get(i));
-        }
+        roomHistoryRepositorySupport.closeOpenHistoryByRoomId(roomId, LocalDateTime.now());
     }
 
     @Override
     public void deleteUserHistory(User user) {
         roomHistoryRepositorySupport.deleteUserHistory(user);
     }
+
+    @Override
+    @Transactional
+    public void closeOpenHistory(Collection<Long> userIds) {
+        roomHistoryRepositorySupport.closeOpenHistory(userIds, LocalDateTime.now());
+    }
 }
@@ -1,7 +1,9 @@
 package com.babble.api.service;
 
 import com.babble.api.request.room.RoomCreateReq;
+import com.babble.api.response.room.RoomCursorRes;
 import com.babble.api.response.room.RoomRes;
+import com.babble.common.room.RoomSummary;
 import com.babble.db.entity.Category;
 import com.babble.db.entity.Room;
 import com.babble.db.entity.User;
@@ -13,6 +15,9 @@ import java.util.List;
 public interface RoomService {
     Room createRoom(Category category, User user, RoomCreateReq roomCreateReq);
     Room getRoomByRoomId(Long roomId);
+    RoomSummary getRoomSummary(Long roomId);
+    boolean isLive(Long roomId);
+    Room getRoomReference(Long roomId);
     List<Tuple> getBestRoomInfo(int pageNum);
     List<Tuple> getRecentRoomInfo(int pageNum);
     List<Tuple> getCategoryBestRoomInfo(String categoryName,int pageNum);
@@ -20,4 +25,10 @@ public interface RoomService {
     void roomClose(Long roomId, Long maxView);
     List<RoomRes> roomList(List<Tuple> roomInfo);
     List<Tuple> searchRoomList(String searchName, int pageNum);
+    List<RoomRes> searchLiveRoomList(String searchName, int pageNum);
+    List<RoomRes> getLiveBestRoomList(String categoryName, int pageNum);
+    List<RoomRes> getLiveRecentRoomList(String categoryName, int pageNum);
+    RoomCursorRes getLiveBestRoomPage(String categoryName, String cursor);
+    RoomCursorRes getLiveRecentRoomPage(String categoryName, String cursor);
+    RoomCursorRes searchRoomPage(String searchName, String cursor);
 }
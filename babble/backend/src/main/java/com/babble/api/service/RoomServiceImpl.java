@@ -1,16 +1,36 @@
 package com.babble.api.service;
 
 import com.babble.api.request.room.RoomCreateReq;
+import com.babble.api.response.room.RoomCursorRes;
 import com.babble.api.response.room.RoomRes;
+import com.babble.common.broker.RoomBroker;
+import com.babble.common.chat.ChatHistory;
+import com.babble.common.chat.ChatTranscriptWriter;
+import com.babble.common.room.CategoryRegistry;
+import com.babble.common.util.HashtagNames;
+import com.babble.common.room.LiveRoom;
+import com.babble.common.room.LiveRoomDirectory;
+import com.babble.common.room.PresenceRegistry;
+import com.babble.common.room.RoomCursor;
+import com.babble.common.room.RoomSummary;
 import com.babble.db.entity.*;
 import com.babble.db.repository.RoomRepository;
 import com.babble.db.repository.RoomRepositorySupport;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.querydsl.core.Tuple;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -28,10 +48,58 @@ public class RoomServiceImpl implements RoomService {
     @Autowired
     RoomHashtagService roomHashtagService;
 
+    @Autowired
+    LiveRoomDirectory liveRoomDirectory;
+
+    @Autowired
+    ChatHistory chatHistory;
+
+    @Autowired
+    RoomBroker roomBroker;
+
+    @Autowired
+    PresenceRegistry presenceRegistry;
+
+    @Autowired
+    RoomCloseService roomCloseService;
+
+    @Autowired
+    ChatTranscriptWriter chatTranscriptWriter;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    CategoryRegistry categoryRegistry;
+
+    @Value("${babble.room.summary-cache.max-size:10000}")
+    long summaryCacheMaxSize;
+
+    // 종료한 방을 기억하는 시간. relay 모드에서 디비 반영 전에 다시 입장하지 못하도록 한다.
+    @Value("${babble.room.closed-ttl-ms:60000}")
+    long closedTtlMs;
+
+    // 방 id -> 생성 후 바뀌지 않는 방 정보. 방 종료 시 삭제
+    private Cache<Long, RoomSummary> roomSummaries;
+    // 이 서버에서 최근 종료한 방 id
+    private Cache<Long, Boolean> closedRooms;
+
     QRoom qRoom = QRoom.room;
     QCategory qCategory = QCategory.category;
     QUserRoom qUserRoom = QUserRoom.userRoom;
 
+    @PostConstruct
+    public void init() {
+        roomSummaries = CacheBuilder.newBuilder()
+                .maximumSize(summaryCacheMaxSize)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.size 등을 actuator metrics 로 노출
+        GuavaCacheMetrics.monitor(meterRegistry, roomSummaries, "babble.room.summary");
+        closedRooms = CacheBuilder.newBuilder()
+                .expireAfterWrite(closedTtlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
 
     @Override
     public Room createRoom(Category category, User user, RoomCreateReq roomCreateReq) {
@@ -42,6 +110,14 @@ public class RoomServiceImpl implements RoomService {
                 .roomCreateReq(roomCreateReq)
                 .build();
         roomRepository.save(room);
+
+        //진행중인 방 목록에 추가
+        String categoryName = category == null ? null : category.getName();
+        // room_hashtag 에 저장되는 것과 같은 규칙으로 정리 (재시작 후 디비에서 불러온 목록과 같도록)
+        List<String> hashtags = HashtagNames.parse(roomCreateReq.getHashtag());
+        liveRoomDirectory.put(new LiveRoom(room.getId(), room.getTitle(), room.getThumbnailUrl(),
+                categoryName, room.getCreateTime(), 0, hashtags));
+        roomSummaries.put(room.getId(), RoomSummary.of(room));
         return room;
     }
 
@@ -51,6 +127,33 @@ public class RoomServiceImpl implements RoomService {
         return room;
     }
 
+    // 캐시에 없으면 디비에서 읽어 채운다. 없는 방과 종료된 방은 캐시하지 않는다.
+    // 종료 직후에는 디비 반영이 비동기라 아직 진행중으로 읽힐 수 있으므로, 진행중인 방 목록에 없으면 캐시하지 않는다.
+    @Override
+    public RoomSummary getRoomSummary(Long roomId) {
+        RoomSummary summary = roomSummaries.getIfPresent(roomId);
+        if (summary != null) return summary;
+        Room room = roomRepositorySupport.findRoomByRoomId(roomId);
+        if (room == null) return null;
+        summary = RoomSummary.of(room);
+        if (summary.isActivate() && isLive(roomId)) roomSummaries.put(roomId, summary);
+        return summary;
+    }
+
+    // 진행중인 방 목록 기준으로 진행 여부 확인.
+    // 목록을 아직 불러오지 않았거나 relay 모드(다른 서버에서 만든 방은 목록에 없음)이면 디비로 확인한다.
+    @Override
+    public boolean isLive(Long roomId) {
+        if (liveRoomDirectory.isAuthoritative()) return liveRoomDirectory.get(roomId) != null;
+        return closedRooms.getIfPresent(roomId) == null && roomRepositorySupport.isActiveRoom(roomId);
+    }
+
+    // 연관관계 저장용 참조(프록시). 방 정보를 조회하지 않는다.
+    @Override
+    public Room getRoomReference(Long roomId) {
+        return roomRepository.getOne(roomId);
+    }
+
     @Override
     public List<Tuple> getBestRoomInfo(int pageNum) {
         List<Tuple> roomRes = roomRepositorySupport.bestRoomInfo(pageNum);
@@ -66,39 +169,56 @@ public class RoomServiceImpl implements RoomService {
 
     @Override
     public List<Tuple> getCategoryBestRoomInfo(String categoryName, int pageNum) {
-        List<Tuple> roomRes = roomRepositorySupport.categoryBestRoomInfo(categoryName,pageNum);
+        Long categoryId = categoryRegistry.getId(categoryName);
+        if (categoryId == null) return new ArrayList<>();
+        List<Tuple> roomRes = roomRepositorySupport.categoryBestRoomInfo(categoryId,pageNum);
         return roomRes;
     }
 
     @Override
     public List<Tuple> getCategoryRecentRoomInfo(String categoryName, int pageNum) {
-        List<Tuple> roomRes = roomRepositorySupport.categoryRecentRoomInfo(categoryName,pageNum);
+        Long categoryId = categoryRegistry.getId(categoryName);
+        if (categoryId == null) return new ArrayList<>();
+        List<Tuple> roomRes = roomRepositorySupport.categoryRecentRoomInfo(categoryId,pageNum);
         return roomRes;
     }
 
     @Override
     public void roomClose(Long roomId, Long maxView) {
-        Room room = roomRepositorySupport.findRoomByRoomId(roomId);
-        room.roomClose(maxView);
-        roomRepository.save(room);
+        // 메모리 상태는 바로 정리하고, 디비는 일괄 update/delete 로 응답 이후에 정리
+        liveRoomDirectory.remove(roomId);
+        roomSummaries.invalidate(roomId);
+        closedRooms.put(roomId, Boolean.TRUE);
+        presenceRegistry.closeRoom(roomId);
+        chatHistory.remove(roomId);
+        // relay 모드에서는 다른 서버의 최근 채팅 기록도 지운다.
+        roomBroker.closeRoom(roomId);
+        chatTranscriptWriter.flush();
+        roomCloseService.submit(roomId, maxView);
     }
 
     @Override
     public List<RoomRes> roomList(List<Tuple> roomInfo){
 
-        List<RoomRes> result = new ArrayList<>();
+        // 방마다 해시태그를 조회하지 않고 페이지 단위로 한 번에 조회
+        List<Long> roomIds = new ArrayList<>();
         for(int i=0;i<roomInfo.size();i++){
+            roomIds.add(roomInfo.get(i).get(qRoom.id));
+        }
+        Map<Long, List<String>> hashtagMap = roomHashtagService.findHashtagNameByRoomIds(roomIds);
 
-            List<String> hashtags = new ArrayList<>();
-            List<Hashtag> list = roomHashtagService.findHashtagByRoomHashtagRoomId(roomInfo.get(i).get(qRoom.id));
-            for(int j=0;j<list.size();j++){
-                hashtags.add(list.get(j).getName());
-            }
+        List<RoomRes> result = new ArrayList<>();
+        for(int i=0;i<roomInfo.size();i++){
+            Long roomId = roomInfo.get(i).get(qRoom.id);
+            List<String> hashtags = hashtagMap.getOrDefault(roomId, new ArrayList<>());
+            // 카테고리별 조회는 category 를 조인하지 않고 id 만 가져오므로 이름은 레지스트리에서 찾는다.
+            String category = roomInfo.get(i).get(qCategory.name);
+            if (category == null) category = categoryRegistry.getName(roomInfo.get(i).get(qRoom.category.id));
             RoomRes roomRes = RoomRes.builder()
-                    .id(roomInfo.get(i).get(qRoom.id))
+                    .id(roomId)
                     .title(roomInfo.get(i).get(qRoom.title))
                     .thumbnailUrl(roomInfo.get(i).get(qRoom.thumbnailUrl))
-                    .category(roomInfo.get(i).get(qCategory.name))
+                    .category(category)
                     .count(roomInfo.get(i).get(qUserRoom.room.id.count()))
                     .list(hashtags)
                     .build();
@@ -113,4 +233,109 @@ public class RoomServiceImpl implements RoomService {
         return searchRoomList;
     }
 
+    @Override
+    public List<RoomRes> searchLiveRoomList(String searchName, int pageNum) {
+        // 서버 시작 후 방 목록이 아직 적재되지 않았거나 relay 모드라면 DB 검색으로 처리
+        if (!liveRoomDirectory.isAuthoritative()) {
+            return roomList(roomRepositorySupport.searchRoomList(searchName, pageNum));
+        }
+        return liveRoomList(liveRoomDirectory.search(searchName, pageNum, 10));
+    }
+
+    @Override
+    public List<RoomRes> getLiveBestRoomList(String categoryName, int pageNum) {
+        // 서버 시작 후 방 목록이 아직 적재되지 않았거나 relay 모드라면 DB 조회로 처리
+        if (!liveRoomDirectory.isAuthoritative()) {
+            return roomList(isAll(categoryName) ? getBestRoomInfo(pageNum) : getCategoryBestRoomInfo(categoryName, pageNum));
+        }
+        return liveRoomList(liveRoomDirectory.best(categoryName, pageNum, 10));
+    }
+
+    @Override
+    public List<RoomRes> getLiveRecentRoomList(String categoryName, int pageNum) {
+        if (!liveRoomDirectory.isAuthoritative()) {
+            return roomList(isAll(categoryName) ? getRecentRoomInfo(pageNum) : getCategoryRecentRoomInfo(categoryName, pageNum));
+        }
+        return liveRoomList(liveRoomDirectory.recent(categoryName, pageNum, 10));
+    }
+
+    private static boolean isAll(String categoryName) {
+        return categoryName == null || categoryName.equals("all");
+    }
+
+    @Override
+    public RoomCursorRes getLiveBestRoomPage(String categoryName, String cursor) {
+        RoomCursor after = RoomCursor.decode(cursor);
+        if (!liveRoomDirectory.isAuthoritative()) {
+            Long categoryId = isAll(categoryName) ? null : categoryRegistry.getId(categoryName);
+            if (!isAll(categoryName) && categoryId == null) return roomPage(new ArrayList<>());
+            return roomPage(after == null
+                    ? roomRepositorySupport.bestRoomInfoAfter(categoryId, null, null, null)
+                    : roomRepositorySupport.bestRoomInfoAfter(categoryId, after.getViewers(), after.getCreateTime(), after.getId()));
+        }
+        List<LiveRoom> rooms = liveRoomDirectory.bestAfter(categoryName, after, 10);
+        return liveRoomPage(rooms);
+    }
+
+    @Override
+    public RoomCursorRes getLiveRecentRoomPage(String categoryName, String cursor) {
+        RoomCursor after = RoomCursor.decode(cursor);
+        if (!liveRoomDirectory.isAuthoritative()) {
+            Long categoryId = isAll(categoryName) ? null : categoryRegistry.getId(categoryName);
+            if (!isAll(categoryName) && categoryId == null) return roomPage(new ArrayList<>());
+            return roomPage(after == null
+                    ? roomRepositorySupport.recentRoomInfoAfter(categoryId, null, null)
+                    : roomRepositorySupport.recentRoomInfoAfter(categoryId, after.getCreateTime(), after.getId()));
+        }
+        List<LiveRoom> rooms = liveRoomDirectory.recentAfter(categoryName, after, 10);
+        return liveRoomPage(rooms);
+    }
+
+    @Override
+    public RoomCursorRes searchRoomPage(String searchName, String cursor) {
+        RoomCursor after = RoomCursor.decode(cursor);
+        return roomPage(after == null
+                ? roomRepositorySupport.searchRoomListAfter(searchName, null, null, null)
+                : roomRepositorySupport.searchRoomListAfter(searchName, after.getViewers(), after.getCreateTime(), after.getId()));
+    }
+
+    // 디비 조회 결과 한 페이지. 가득 찬 페이지이면 마지막 방으로 다음 커서를 만든다.
+    private RoomCursorRes roomPage(List<Tuple> roomInfo) {
+        String nextCursor = null;
+        if (roomInfo.size() == 10) {
+            Tuple last = roomInfo.get(roomInfo.size() - 1);
+            nextCursor = new RoomCursor(last.get(qUserRoom.room.id.count()), last.get(qRoom.createTime), last.get(qRoom.id)).encode();
+        }
+        return RoomCursorRes.builder()
+                .rooms(roomList(roomInfo))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private RoomCursorRes liveRoomPage(List<LiveRoom> rooms) {
+        String nextCursor = null;
+        if (rooms.size() == 10) {
+            nextCursor = RoomCursor.of(rooms.get(rooms.size() - 1)).encode();
+        }
+        return RoomCursorRes.builder()
+                .rooms(liveRoomList(rooms))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private List<RoomRes> liveRoomList(List<LiveRoom> rooms) {
+        List<RoomRes> result = new ArrayList<>();
+        for (LiveRoom room : rooms) {
+            RoomRes roomRes = RoomRes.builder()
+                    .id(room.getId())
+                    .title(room.getTitle())
+                    .thumbnailUrl(room.getThumbnailUrl())
+                    .category(room.getCategory())
+                    .count(room.getViewers())
+                    .list(room.getHashtags())
+                    .build();
+            result.add(roomRes);
+        }
+        return result;
+    }
 }
@@ -4,7 +4,10 @@ import com.babble.db.entity.Hashtag;
 import com.babble.db.entity.User;
 import com.babble.db.entity.UserHashtag;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 public interface UserHashtagService {
     UserHashtag createUserHashtag(User user, Hashtag hashtag);
@@ -12,4 +15,6 @@ public interface UserHashtagService {
     void deleteUserHashtag(User user);
     List<String> getUserHashtag(Long userId);
     List<String> getUserByHashtag(String hashtag);
+    Map<String, List<String>> getUserByHashtags(Collection<String> hashtags);
+    void streamUserByHashtags(Collection<String> hashtags, BiConsumer<String, List<String>> consumer);
 }
@@ -5,15 +5,21 @@ import com.babble.db.entity.User;
 import com.babble.db.entity.UserHashtag;
 import com.babble.db.repository.UserHashtagRepository;
 import com.babble.db.repository.UserHashtagRepositorySupport;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 
 /**
  *	유저해시태그 관련 비즈니스 로직 처리를 위한 서비스 구현 정의.
  */
+@Slf4j
 @Service("userHashtagService")
 public class UserHashtagServiceImpl implements UserHashtagService {
 
@@ -51,8 +57,19 @@ public class UserHashtagServiceImpl implements UserHashtagService {
 
     @Override
     public List<String> getUserByHashtag(String hashtag) {
-        System.out.println(">>>>>>>>> getUserHashTagImp " + hashtag);
+        log.debug("find users by hashtag {}", hashtag);
         List<String> list = userHashtagRepositorySupport.getUserByHashtag(hashtag);
         return list;
     }
+
+    @Override
+    public Map<String, List<String>> getUserByHashtags(Collection<String> hashtags) {
+        return userHashtagRepositorySupport.getUserByHashtags(hashtags);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUserByHashtags(Collection<String> hashtags, BiConsumer<String, List<String>> consumer) {
+        userHashtagRepositorySupport.streamUserByHashtags(hashtags, consumer);
+    }
 }
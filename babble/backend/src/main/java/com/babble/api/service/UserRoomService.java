@@ -4,8 +4,12 @@ import com.babble.db.entity.Room;
 import com.babble.db.entity.User;
 import com.babble.db.entity.UserRoom;
 
+import java.util.Map;
+
 public interface UserRoomService {
     UserRoom createUserRoom(User user, Room room);
     void deleteUserRoom(User user);
     void deleteUserRoom(Long roomId);
+    Map<Long, Long> getActiveUserRoom();
+    void checkpoint(Map<Long, Long> presence);
 }
@@ -1,14 +1,18 @@
 package com.babble.api.service;
 
+import com.babble.db.entity.QUserRoom;
 import com.babble.db.entity.Room;
 import com.babble.db.entity.User;
 import com.babble.db.entity.UserRoom;
 import com.babble.db.repository.UserRoomRepository;
 import com.babble.db.repository.UserRoomRepositorySupport;
+import com.querydsl.core.Tuple;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  *	현재 참여 유저 관련 비즈니스 로직 처리를 위한 서비스 구현 정의.
@@ -37,10 +41,30 @@ public class UserRoomServiceImpl implements UserRoomService {
     }
 
     @Override
+    @Transactional
     public void deleteUserRoom(Long roomId) {
-        List<UserRoom> userRoom = userRoomRepositorySupport.findUserRoomByRoomId(roomId);
-        for(int i=0;i<userRoom.size();i++){
-            userRoomRepository.delete(userRoom.get(i));
+        userRoomRepositorySupport.deleteUserRoomByRoomId(roomId);
+    }
+
+    @Override
+    public Map<Long, Long> getActiveUserRoom() {
+        QUserRoom qUserRoom = QUserRoom.userRoom;
+        Map<Long, Long> userRooms = new HashMap<>();
+        for (Tuple tuple : userRoomRepositorySupport.activeUserRoom()) {
+            userRooms.put(tuple.get(qUserRoom.user.id), tuple.get(qUserRoom.room.id));
+        }
+        return userRooms;
+    }
+
+    // 유저 id -> 현재 방 id (퇴장했으면 null) 로 user_room 을 맞춘다. 유저마다 기존 행을 지우고 다시 넣는다.
+    @Override
+    @Transactional
+    public void checkpoint(Map<Long, Long> presence) {
+        userRoomRepositorySupport.deleteUserRoomByUserIds(presence.keySet());
+        Map<Long, Long> entered = new HashMap<>();
+        for (Map.Entry<Long, Long> userRoom : presence.entrySet()) {
+            if (userRoom.getValue() != null) entered.put(userRoom.getKey(), userRoom.getValue());
         }
+        if (!entered.isEmpty()) userRoomRepositorySupport.insertUserRoom(entered);
     }
 }
@@ -4,6 +4,7 @@ import com.babble.api.request.user.UserRegisterReq;
 import com.babble.api.request.user.UserUpdatePasswordReq;
 import com.babble.api.request.user.UserUpdatePictureReq;
 import com.babble.api.response.user.UserHistoryRes;
+import com.babble.common.auth.JwtPrincipalCache;
 import com.babble.db.entity.QCategory;
 import com.babble.db.entity.QRoom;
 import com.babble.db.entity.QRoomHistory;
@@ -34,6 +35,9 @@ public class UserServiceImpl implements UserService {
 	
 	@Autowired
 	PasswordEncoder passwordEncoder;
+
+	@Autowired
+	JwtPrincipalCache jwtPrincipalCache;
 	
 	@Override
 	public User createUser(UserRegisterReq userRegisterInfo) {
@@ -61,6 +65,7 @@ public class UserServiceImpl implements UserService {
 	public void deleteUser(String email) {
 		User user = userRepositorySupport.findUserByUserEmail(email);
 		userRepository.delete(user);
+		jwtPrincipalCache.invalidateUser(email);
 	}
 
 	@Override
@@ -127,5 +132,6 @@ public class UserServiceImpl implements UserService {
 		User user = userRepositorySupport.findUserByUserEmail(userInfo.getEmail());
 		user.updatePassword(passwordEncoder.encode(userInfo.getPassword()));
 		userRepository.save(user);
+		jwtPrincipalCache.invalidateUser(userInfo.getEmail());
 	}
 }
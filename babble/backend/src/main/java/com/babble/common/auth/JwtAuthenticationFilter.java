@@ -7,30 +7,26 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.interfaces.DecodedJWT;
-import com.babble.api.service.UserService;
 import com.babble.common.util.JwtTokenUtil;
 import com.babble.common.util.ResponseBodyWriteUtil;
-import com.babble.db.entity.User;
 
 /**
  * 요청 헤더에 jwt 토큰이 있는 경우, 토큰 검증 및 인증 처리 로직 정의.
  */
+@Slf4j
 public class JwtAuthenticationFilter extends BasicAuthenticationFilter { //토큰확인 및 유저정보 받아서 전달
-	private UserService userService;
+	private JwtAuthenticator jwtAuthenticator;
 	
-	public JwtAuthenticationFilter(AuthenticationManager authenticationManager, UserService userService) {
+	public JwtAuthenticationFilter(AuthenticationManager authenticationManager, JwtAuthenticator jwtAuthenticator) {
 		super(authenticationManager);
-		this.userService = userService;
+		this.jwtAuthenticator = jwtAuthenticator;
 	}
 
 	//인증이나 권한이 필요한 주소요청이 있을 대 해당 필터를 타게 된다.
@@ -40,7 +36,6 @@ public class JwtAuthenticationFilter extends BasicAuthenticationFilter { //토
 
 
         String header = request.getHeader(JwtTokenUtil.HEADER_STRING); //jwt 헤더 토큰
-        System.out.println("header : "+ header);
             // header가 있는지 확인
             if (header == null || !header.startsWith(JwtTokenUtil.TOKEN_PREFIX)) {
                 filterChain.doFilter(request, response);
@@ -61,32 +56,12 @@ public class JwtAuthenticationFilter extends BasicAuthenticationFilter { //토
 	@Transactional(readOnly = true)
     public Authentication getAuthentication(HttpServletRequest request) throws Exception {
         String token = request.getHeader(JwtTokenUtil.HEADER_STRING);
-        System.out.println("token :" + token);
         String provider = request.getHeader("provider");
-        System.out.println("provider :" + provider);
+        log.debug("authenticate {} with provider {}", request.getRequestURI(), provider);
 
         // 요청 헤더에 Authorization 키값에 jwt 토큰이 포함된 경우에만, 토큰 검증 및 인증 처리 로직 실행.
         if (token != null && provider.equals("babble") ) {
-
-            JWTVerifier verifier = JwtTokenUtil.getVerifier();
-            JwtTokenUtil.handleError(token);
-            DecodedJWT decodedJWT = verifier.verify(token.replace(JwtTokenUtil.TOKEN_PREFIX, ""));
-            String userEmail = decodedJWT.getSubject();
-
-
-            if (userEmail != null) {
-                    // jwt 토큰에 포함된 계정 정보(userEmail) 통해 실제 디비에 해당 정보의 계정이 있는지 조회.
-            		User user = userService.getUserByUserEmail(userEmail);
-                if(user != null) {
-                        // 식별된 정상 유저인 경우, 요청 context 내에서 참조 가능한 인증 정보(jwtAuthentication) 생성.
-                		BabbleUserDetails babbleUserDetails = new BabbleUserDetails(user);
-                		UsernamePasswordAuthenticationToken jwtAuthentication = new UsernamePasswordAuthenticationToken(userEmail,
-                				null, babbleUserDetails.getAuthorities());
-                		jwtAuthentication.setDetails(babbleUserDetails);
-                		return jwtAuthentication;
-                }
-            }
-            return null;
+            return jwtAuthenticator.authenticate(token);
         }
         return null;
     }
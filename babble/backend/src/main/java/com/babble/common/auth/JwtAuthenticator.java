@@ -0,0 +1,77 @@
+package com.babble.common.auth;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.babble.api.service.UserService;
+import com.babble.common.util.JwtTokenUtil;
+import com.babble.db.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * jwt 토큰을 검증하고 인증 정보(principal)를 만드는 로직 정의.
+ * HTTP 요청(JwtAuthenticationFilter)과 STOMP CONNECT(MyChannelInterceptor)에서 함께 사용한다.
+ */
+@Component
+public class JwtAuthenticator {
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    JwtPrincipalCache jwtPrincipalCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private Timer verifySuccess;
+    private Timer verifyFailure;
+
+    @PostConstruct
+    public void init() {
+        verifySuccess = Timer.builder("babble.auth.jwt.verify").description("jwt 서명 검증 시간")
+                .tag("result", "success").register(meterRegistry);
+        verifyFailure = Timer.builder("babble.auth.jwt.verify").description("jwt 서명 검증 시간")
+                .tag("result", "failure").register(meterRegistry);
+    }
+
+    // 서명 검증은 호출마다 한 번만 수행하고, 검증에 실패하면 JWTVerificationException 이 발생한다.
+    public UsernamePasswordAuthenticationToken authenticate(String token) {
+        return authenticate(token, true);
+    }
+
+    // logFailure : 검증 실패를 error 로 남길지 (실패가 흔한 STOMP CONNECT 에서는 false)
+    public UsernamePasswordAuthenticationToken authenticate(String token, boolean logFailure) {
+        long start = System.nanoTime();
+        DecodedJWT decodedJWT;
+        try {
+            decodedJWT = JwtTokenUtil.verify(token, logFailure);
+        } catch (RuntimeException ex) {
+            verifyFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+        verifySuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        String userEmail = decodedJWT.getSubject();
+        if (userEmail == null) return null;
+
+        // 같은 토큰으로 이미 조회한 유저 정보가 있으면 디비 조회 생략
+        BabbleUserDetails babbleUserDetails = jwtPrincipalCache.get(token);
+        if (babbleUserDetails == null) {
+            // jwt 토큰에 포함된 계정 정보(userEmail) 통해 실제 디비에 해당 정보의 계정이 있는지 조회.
+            User user = userService.getUserByUserEmail(userEmail);
+            if (user == null) return null;
+            babbleUserDetails = new BabbleUserDetails(user);
+            jwtPrincipalCache.put(token, babbleUserDetails, decodedJWT.getExpiresAt());
+        }
+        // 식별된 정상 유저인 경우, 요청 context 내에서 참조 가능한 인증 정보(jwtAuthentication) 생성.
+        UsernamePasswordAuthenticationToken jwtAuthentication = new UsernamePasswordAuthenticationToken(userEmail,
+                null, babbleUserDetails.getAuthorities());
+        jwtAuthentication.setDetails(babbleUserDetails);
+        return jwtAuthentication;
+    }
+}
@@ -0,0 +1,61 @@
+package com.babble.common.auth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 검증된 jwt 토큰으로 조회한 유저 정보(principal) 캐시 정의.
+ * 인증이 필요한 요청마다 디비에서 유저를 다시 조회하지 않도록 토큰 문자열 단위로 보관한다.
+ * 크기와 보관 시간으로 제한하며, 토큰 만료 시각이 지난 항목은 사용하지 않는다.
+ */
+@Component
+public class JwtPrincipalCache {
+
+    private final Cache<String, Entry> cache;
+
+    public JwtPrincipalCache(@Value("${jwt.principal-cache.max-size:10000}") long maxSize,
+                             @Value("${jwt.principal-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public BabbleUserDetails get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        if (entry == null) return null;
+        if (entry.expiresAt != null && entry.expiresAt.getTime() <= System.currentTimeMillis()) {
+            cache.invalidate(token);
+            return null;
+        }
+        return entry.userDetails;
+    }
+
+    public void put(String token, BabbleUserDetails userDetails, Date expiresAt) {
+        cache.put(token, new Entry(userDetails, expiresAt));
+    }
+
+    // 회원 탈퇴, 비밀번호 변경 시 해당 유저의 모든 토큰 항목 삭제
+    public void invalidateUser(String email) {
+        cache.asMap().values().removeIf(entry -> email.equals(entry.userDetails.getUsername()));
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private static class Entry {
+        final BabbleUserDetails userDetails;
+        final Date expiresAt;
+
+        Entry(BabbleUserDetails userDetails, Date expiresAt) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.babble.common.broker;
+
+import com.babble.api.request.room.MessageReq;
+import com.babble.common.chat.ChatHistory;
+import com.babble.common.chat.CompactMessageConverter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 서버 간에 방 단위 메시지를 중계하는 브로커 정의.
+ * 발행된 메시지는 한 번만 직렬화해서 현재 서버의 simple broker 에 전달하고, 같은 바이트를 다른 서버들(peers)에게 TCP 로 보낸다.
+ * 다른 서버로부터 받은 메시지는 현재 서버의 구독자에게만 전달하고 다시 중계하지 않는다(서버 간 full mesh 구성).
+ * 받은 채팅(/sub/message/{roomId})은 현재 서버의 최근 채팅(ChatHistory)에도 넣고, 방 종료도 중계해 다른 서버의 기록을 지운다.
+ * 서버마다 포트만 다르게 주면 한 JVM 또는 loopback 으로 여러 노드를 띄워 확인할 수 있다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "babble.broker.mode", havingValue = "relay")
+public class RelayRoomBroker implements RoomBroker {
+
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+    private static final String MESSAGE_PREFIX = "/sub/message/";
+    // 구독 주소가 아닌 서버 간 제어용 주소 : 방 종료
+    private static final String CLOSE_PREFIX = "/relay/close/";
+
+    private final SimpMessagingTemplate template;
+    private final ObjectMapper objectMapper;
+    private final ChatHistory chatHistory;
+
+    @Value("${babble.broker.relay.bind-address:127.0.0.1}")
+    String bindAddress;
+
+    @Value("${babble.broker.relay.port:9700}")
+    int port;
+
+    @Value("${babble.broker.relay.peers:}")
+    List<String> peerAddresses;
+
+    @Value("${babble.broker.relay.secret:}")
+    String secret;
+
+    @Value("${babble.broker.relay.queue-capacity:10000}")
+    int queueCapacity;
+
+    // 동시에 받을 수 있는 peer 연결 수. 넘는 연결은 바로 끊는다.
+    @Value("${babble.broker.relay.max-connections:16}")
+    int maxConnections;
+
+    // 연결 후 secret 을 보내기까지 기다리는 시간
+    @Value("${babble.broker.relay.handshake-timeout-ms:5000}")
+    int handshakeTimeoutMs;
+
+    private final List<Peer> peers = new ArrayList<>();
+    private final Counter dropped;
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+    private ThreadPoolExecutor receivers;
+    private volatile boolean running;
+
+    public RelayRoomBroker(SimpMessagingTemplate template, ObjectMapper objectMapper, ChatHistory chatHistory,
+                           MeterRegistry meterRegistry) {
+        this.template = template;
+        this.objectMapper = objectMapper;
+        this.chatHistory = chatHistory;
+        this.dropped = Counter.builder("babble.broker.relay.dropped")
+                .description("다른 서버로 보내지 못하고 버린 메시지 수 (peer 큐가 가득 찼거나 연결이 끊긴 경우)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        // secret 없이 열면 포트에 접근할 수 있는 누구나 /sub/ 로 메시지를 보낼 수 있으므로 시작하지 않는다.
+        if (secret == null || secret.trim().isEmpty()) {
+            throw new IllegalStateException("babble.broker.relay.secret must be set when babble.broker.mode=relay");
+        }
+        running = true;
+
+        for (String address : peerAddresses) {
+            if (address.trim().isEmpty()) continue;
+            String[] hostPort = address.trim().split(":");
+            peers.add(new Peer(hostPort[0], Integer.parseInt(hostPort[1])));
+        }
+        // accept 1개 + peer 마다 송신 1개
+        executor = Executors.newFixedThreadPool(peers.size() + 1, new ThreadFactoryBuilder()
+                .setNameFormat("room-relay-%d").setDaemon(true).build());
+        receivers = new ThreadPoolExecutor(0, maxConnections, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("room-relay-recv-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+        executor.execute(this::accept);
+        for (Peer peer : peers) {
+            executor.execute(peer::run);
+        }
+        log.info("room relay listening on {}:{} with {} peers", bindAddress, port, peers.size());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        serverSocket.close();
+        executor.shutdownNow();
+        receivers.shutdownNow();
+    }
+
+    @Override
+    public void publish(String destination, Object payload, MimeType contentType) {
+        byte[] body;
+        if (CompactMessageConverter.COMPACT.equalsTypeAndSubtype(contentType)) {
+            body = CompactMessageConverter.encode(payload).getBytes(StandardCharsets.UTF_8);
+        } else {
+            try {
+                body = objectMapper.writeValueAsBytes(payload);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException(ex);
+            }
+            contentType = MimeTypeUtils.APPLICATION_JSON;
+        }
+        deliver(destination, body, contentType);
+        relay(new Frame(destination, contentType.toString(), body));
+    }
+
+    // 다른 서버의 최근 채팅 기록도 지우도록 방 종료를 알린다.
+    @Override
+    public void closeRoom(Long roomId) {
+        relay(new Frame(CLOSE_PREFIX + roomId, MimeTypeUtils.APPLICATION_OCTET_STREAM_VALUE, new byte[0]));
+    }
+
+    private void relay(Frame frame) {
+        for (Peer peer : peers) {
+            if (!peer.queue.offer(frame)) dropped.increment();
+        }
+    }
+
+    // 다른 서버로 보내지 못하고 버린 메시지 수 (peer 큐가 가득 찬 경우)
+    public long getDropped() {
+        return (long) dropped.count();
+    }
+
+    // 이미 직렬화된 바이트를 변환기를 거치지 않고 그대로 simple broker 에 전달
+    private void deliver(String destination, byte[] body, MimeType contentType) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(contentType);
+        accessor.setLeaveMutable(true);
+        template.send(destination, MessageBuilder.createMessage(body, accessor.getMessageHeaders()));
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                try {
+                    receivers.execute(() -> receive(socket));
+                } catch (RejectedExecutionException ex) {
+                    log.warn("room relay rejected connection from {}, too many connections", socket.getRemoteSocketAddress());
+                    closeQuietly(socket);
+                }
+            } catch (IOException ex) {
+                if (running) log.warn("room relay accept failed", ex);
+            }
+        }
+    }
+
+    private void receive(Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            socket.setSoTimeout(handshakeTimeoutMs);
+            byte[] received = in.readUTF().getBytes(StandardCharsets.UTF_8);
+            if (!MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), received)) {
+                log.warn("room relay rejected connection from {}", socket.getRemoteSocketAddress());
+                return;
+            }
+            // 인증된 peer 연결은 메시지가 없을 때도 유지한다.
+            socket.setSoTimeout(0);
+            while (running) {
+                String destination = in.readUTF();
+                MimeType contentType = MimeTypeUtils.parseMimeType(in.readUTF());
+                int length = in.readInt();
+                if (length < 0 || length > MAX_FRAME_SIZE) throw new IOException("invalid frame size " + length);
+                byte[] body = new byte[length];
+                in.readFully(body);
+                if (destination.startsWith(CLOSE_PREFIX)) {
+                    closed(destination);
+                } else if (destination.startsWith("/sub/")) {
+                    deliver(destination, body, contentType);
+                    if (destination.startsWith(MESSAGE_PREFIX)) remember(body, contentType);
+                }
+            }
+        } catch (IOException ex) {
+            if (running) log.info("room relay connection from {} closed", socket.getRemoteSocketAddress());
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    // 다른 서버로 보낸 채팅도 나중에 이 서버로 들어온 사용자가 볼 수 있도록 보관 (JSON 사본만 보내므로 compact 사본과 겹치지 않음)
+    private void remember(byte[] body, MimeType contentType) {
+        if (!MimeTypeUtils.APPLICATION_JSON.equalsTypeAndSubtype(contentType)) return;
+        try {
+            chatHistory.add(objectMapper.readValue(body, MessageReq.class));
+        } catch (IOException ex) {
+            log.debug("room relay could not read chat frame: {}", ex.getMessage());
+        }
+    }
+
+    private void closed(String destination) {
+        try {
+            chatHistory.remove(Long.valueOf(destination.substring(CLOSE_PREFIX.length())));
+        } catch (NumberFormatException ex) {
+            log.debug("room relay ignored close for {}", destination);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static class Frame {
+        final String destination;
+        final String contentType;
+        final byte[] body;
+
+        Frame(String destination, String contentType, byte[] body) {
+            this.destination = destination;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    // peer 한 곳으로의 연결. 전송은 peer 마다 별도 스레드와 제한된 큐로 처리해 느린 서버가 채팅 처리 스레드를 막지 않도록 한다.
+    private class Peer {
+        final String host;
+        final int port;
+        final BlockingQueue<Frame> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Peer(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        void run() {
+            while (running) {
+                try (Socket socket = new Socket(host, port);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                    socket.setTcpNoDelay(true);
+                    out.writeUTF(secret);
+                    out.flush();
+                    log.info("room relay connected to {}:{}", host, port);
+                    while (running) {
+                        Frame frame = queue.take();
+                        write(out, frame);
+                        // 밀린 메시지는 한 번에 flush
+                        Frame next;
+                        while ((next = queue.poll()) != null) {
+                            write(out, next);
+                        }
+                        out.flush();
+                    }
+                } catch (IOException ex) {
+                    if (!running) return;
+                    log.warn("room relay connection to {}:{} failed, retrying", host, port);
+                    dropped.increment(queue.size());
+                    queue.clear();
+                    sleep();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void write(DataOutputStream out, Frame frame) throws IOException {
+            out.writeUTF(frame.destination);
+            out.writeUTF(frame.contentType);
+            out.writeInt(frame.body.length);
+            out.write(frame.body);
+        }
+
+        private void sleep() {
+            try {
+                TimeUnit.SECONDS.sleep(1);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.babble.common.broker;
+
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * 방 단위 구독 주소(/sub/message/{roomId}, /sub/emoji/{roomId})로 메시지를 발행하는 브로커 정의.
+ * babble.broker.mode 설정에 따라 단일 서버용(simple) 또는 서버 간 중계(relay) 구현이 등록된다.
+ * 메시지는 발행 시 지정한 content-type 으로 한 번만 직렬화되고, 그 바이트를 방의 모든 구독자가 공유한다.
+ */
+public interface RoomBroker {
+    void publish(String destination, Object payload, MimeType contentType);
+
+    default void publish(String destination, Object payload) {
+        publish(destination, payload, MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    // 방 종료를 다른 서버에 알린다. (단일 서버에서는 할 일 없음)
+    default void closeRoom(Long roomId) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.babble.common.broker;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.util.Collections;
+
+/**
+ * 같은 서버의 simple broker 구독자에게만 전달하는 기본 브로커 정의.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "babble.broker.mode", havingValue = "simple", matchIfMissing = true)
+public class SimpleRoomBroker implements RoomBroker {
+    private final SimpMessagingTemplate template;
+
+    @Override
+    public void publish(String destination, Object payload, MimeType contentType) {
+        // content-type 헤더로 변환기(Jackson 또는 CompactMessageConverter)가 결정된다.
+        template.convertAndSend(destination, payload, Collections.singletonMap(MessageHeaders.CONTENT_TYPE, contentType));
+    }
+}
@@ -0,0 +1,172 @@
+package com.babble.common.broker;
+
+import com.babble.common.chat.EmojiAggregator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 느린 구독자(브라우저)에 대한 전송 정책 정의.
+ * 세션마다 전송이 막혀 있는 시간과 전달 대기중인 메시지 수를 추적한다.
+ * 전송이 emoji-drop-after-ms 이상 막혀 있으면 이모지 메시지부터 버리고,
+ * 그래도 밀리면 WebSocketTransport 의 send-time-limit / send-buffer-size-limit 에 걸려 연결이 종료된다.
+ */
+@Component
+public class SlowSubscriberPolicy implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private final Map<String, SessionStats> sessions = new ConcurrentHashMap<>();
+    private final long emojiDropAfterNanos;
+    private final Counter droppedEmojiCounter;
+
+    public SlowSubscriberPolicy(@Value("${babble.websocket.emoji-drop-after-ms:1000}") long emojiDropAfterMs,
+                                MeterRegistry meterRegistry) {
+        this.emojiDropAfterNanos = TimeUnit.MILLISECONDS.toNanos(emojiDropAfterMs);
+        this.droppedEmojiCounter = Counter.builder("babble.websocket.emoji.dropped")
+                .description("느린 구독자에게 보내지 않고 버린 이모지 메시지 수")
+                .register(meterRegistry);
+        Gauge.builder("babble.websocket.sessions", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("babble.websocket.sessions.slow", this, SlowSubscriberPolicy::countSlowSessions).register(meterRegistry);
+        Gauge.builder("babble.websocket.outbound.pending", this, SlowSubscriberPolicy::sumPending).register(meterRegistry);
+    }
+
+    public Collection<SessionStats> getSessions() {
+        return sessions.values();
+    }
+
+    // clientOutboundChannel 인터셉터 : 막혀 있는 세션으로 가는 이모지 메시지는 버린다.
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) return message;
+
+        SessionStats stats = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (stats == null) return message;
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (isEmoji(destination) && stats.blockedNanos() > emojiDropAfterNanos) {
+            stats.droppedEmoji.incrementAndGet();
+            droppedEmojiCounter.increment();
+            return null;
+        }
+        stats.handed.incrementAndGet();
+        return message;
+    }
+
+    // 개별 이모지, compact 이모지, 묶음 이모지 모두 버려도 되는 메시지
+    static boolean isEmoji(String destination) {
+        return destination != null && (destination.startsWith("/sub/emoji/") || destination.startsWith("/sub/emoji-compact/")
+                || destination.startsWith(EmojiAggregator.BATCH_DESTINATION));
+    }
+
+    // 웹소켓 세션에 실제 전송 시간을 측정하는 decorator 를 씌운다.
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                TrackedSession tracked = new TrackedSession(session);
+                sessions.put(session.getId(), tracked.stats);
+                super.afterConnectionEstablished(tracked);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private long countSlowSessions() {
+        long count = 0;
+        for (SessionStats stats : sessions.values()) {
+            if (stats.blockedNanos() > emojiDropAfterNanos) count++;
+        }
+        return count;
+    }
+
+    private long sumPending() {
+        long sum = 0;
+        for (SessionStats stats : sessions.values()) {
+            sum += stats.getPending();
+        }
+        return sum;
+    }
+
+    /**
+     * 세션별 전송 통계.
+     */
+    @Getter
+    public static class SessionStats {
+        private final String sessionId;
+        private final AtomicLong handed = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong droppedEmoji = new AtomicLong();
+        private volatile long sendStartedAt = 0;
+
+        SessionStats(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        // 브로커가 넘겼지만 아직 브라우저로 쓰지 못한 메시지 수
+        public long getPending() {
+            return Math.max(handed.get() - written.get(), 0);
+        }
+
+        public long getBlockedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(blockedNanos());
+        }
+
+        long blockedNanos() {
+            long startedAt = sendStartedAt;
+            return startedAt == 0 ? 0 : System.nanoTime() - startedAt;
+        }
+    }
+
+    private static class TrackedSession extends WebSocketSessionDecorator {
+        final SessionStats stats;
+
+        TrackedSession(WebSocketSession session) {
+            super(session);
+            this.stats = new SessionStats(session.getId());
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            stats.sendStartedAt = System.nanoTime();
+            try {
+                super.sendMessage(message);
+            } finally {
+                stats.sendStartedAt = 0;
+            }
+            if (isMessageFrame(message)) stats.written.incrementAndGet();
+        }
+
+        // STOMP MESSAGE 프레임만 집계 (CONNECTED, RECEIPT, 하트비트 등 제외)
+        private static boolean isMessageFrame(WebSocketMessage<?> message) {
+            Object payload = message.getPayload();
+            return payload instanceof String && ((String) payload).startsWith("MESSAGE");
+        }
+    }
+}
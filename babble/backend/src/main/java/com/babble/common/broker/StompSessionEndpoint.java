@@ -0,0 +1,42 @@
+package com.babble.common.broker;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 세션별 outbound 대기 메시지 현황 actuator 엔드포인트 정의.
+ * 세션 id 는 태그 수가 많아 메트릭 대신 엔드포인트로 제공한다.
+ * 세션 id 가 그대로 보이므로 웹에는 노출하지 않고 JMX(org.springframework.boot:type=Endpoint,name=Stompsessions)로만 조회한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "stompsessions")
+public class StompSessionEndpoint {
+    private final SlowSubscriberPolicy slowSubscriberPolicy;
+
+    @ReadOperation
+    public List<Map<String, Object>> sessions() {
+        List<SlowSubscriberPolicy.SessionStats> list = new ArrayList<>(slowSubscriberPolicy.getSessions());
+        list.sort(Comparator.comparingLong(SlowSubscriberPolicy.SessionStats::getPending).reversed());
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SlowSubscriberPolicy.SessionStats stats : list) {
+            Map<String, Object> session = new LinkedHashMap<>();
+            session.put("sessionId", stats.getSessionId());
+            session.put("pending", stats.getPending());
+            session.put("blockedMillis", stats.getBlockedMillis());
+            session.put("written", stats.getWritten().get());
+            session.put("droppedEmoji", stats.getDroppedEmoji().get());
+            result.add(session);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+package com.babble.common.chat;
+
+import com.babble.api.request.room.MessageReq;
+import com.babble.common.room.LiveRoomDirectory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 방별 최근 채팅 메시지 보관소 정의.
+ * 방마다 고정 크기 배열을 원형으로 덮어쓰며 마지막 messages-per-room 개만 보관하고, 나중에 들어온 사용자가 조회한다.
+ * 전체 메모리는 max-rooms 로 제한하며, 넘치면 가장 오래 사용되지 않은 방의 기록부터 버린다.
+ * 메시지는 max-content-length 글자까지만 잘라서 보관하므로 전체 크기는 max-rooms * messages-per-room * max-content-length 를 넘지 않는다.
+ * 방 종료 시 해당 방의 기록을 삭제하고, 종료와 동시에 들어온 메시지가 기록을 다시 만들지 않도록 종료한 방을 잠시 기억한다.
+ */
+@Component
+public class ChatHistory {
+
+    private final LiveRoomDirectory liveRoomDirectory;
+    private final int messagesPerRoom;
+    private final int maxContentLength;
+    private final Cache<Long, Ring> rooms;
+    // 이 서버에서 최근 종료한 방 id
+    private final Cache<Long, Boolean> closedRooms;
+
+    public ChatHistory(LiveRoomDirectory liveRoomDirectory,
+                       @Value("${babble.chat.history.messages-per-room:50}") int messagesPerRoom,
+                       @Value("${babble.chat.history.max-rooms:1000}") long maxRooms,
+                       @Value("${babble.chat.history.max-content-length:1000}") int maxContentLength,
+                       @Value("${babble.room.closed-ttl-ms:60000}") long closedTtlMs,
+                       MeterRegistry meterRegistry) {
+        this.liveRoomDirectory = liveRoomDirectory;
+        this.messagesPerRoom = messagesPerRoom;
+        this.maxContentLength = maxContentLength;
+        this.rooms = CacheBuilder.newBuilder()
+                .maximumSize(maxRooms)
+                .build();
+        this.closedRooms = CacheBuilder.newBuilder()
+                .expireAfterWrite(closedTtlMs, TimeUnit.MILLISECONDS)
+                .build();
+        Gauge.builder("babble.chat.history.rooms", rooms, Cache::size).register(meterRegistry);
+    }
+
+    // 종료 확인과 추가를 방의 compute 안에서 처리하므로 remove 와 엇갈려 종료한 방의 기록이 다시 생기지 않는다.
+    public void add(MessageReq message) {
+        Long roomId = message.getChatroomId();
+        if (roomId == null || messagesPerRoom <= 0) return;
+        MessageReq stored = truncate(message);
+        rooms.asMap().compute(roomId, (id, ring) -> {
+            if (!isLive(roomId)) return null;
+            if (ring == null) ring = new Ring(messagesPerRoom);
+            ring.add(stored);
+            return ring;
+        });
+    }
+
+    // 이 서버에서 종료한 방은 보관하지 않는다.
+    // 없는 방 번호로 보낸 메시지 때문에 기록이 쌓이지 않도록 진행중인 방만 보관 (relay 모드에서는 다른 서버의 방도 있으므로 maxRooms 로만 제한)
+    private boolean isLive(Long roomId) {
+        if (closedRooms.getIfPresent(roomId) != null) return false;
+        return !liveRoomDirectory.isAuthoritative() || liveRoomDirectory.get(roomId) != null;
+    }
+
+    // 긴 메시지는 잘라낸 사본을 보관 (대화명은 이전 클라이언트가 payload 로 보낸 값일 수 있어 함께 자름)
+    private MessageReq truncate(MessageReq message) {
+        String content = message.getContent();
+        String nickname = message.getNickname();
+        if ((content == null || content.length() <= maxContentLength)
+                && (nickname == null || nickname.length() <= maxContentLength)) {
+            return message;
+        }
+        return MessageReq.builder()
+                .chatroomId(message.getChatroomId())
+                .content(content == null || content.length() <= maxContentLength
+                        ? content : content.substring(0, maxContentLength))
+                .nickname(nickname == null || nickname.length() <= maxContentLength
+                        ? nickname : nickname.substring(0, maxContentLength))
+                .build();
+    }
+
+    // 오래된 메시지부터 순서대로 반환
+    public List<MessageReq> recent(Long roomId) {
+        Ring ring = rooms.getIfPresent(roomId);
+        if (ring == null) return Collections.emptyList();
+        return ring.snapshot();
+    }
+
+    // 종료 표시를 먼저 남긴 뒤 기록을 지운다.
+    public void remove(Long roomId) {
+        closedRooms.put(roomId, Boolean.TRUE);
+        rooms.invalidate(roomId);
+    }
+
+    private static class Ring {
+        private final MessageReq[] slots;
+        private int next;
+        private int size;
+
+        Ring(int capacity) {
+            this.slots = new MessageReq[capacity];
+        }
+
+        synchronized void add(MessageReq message) {
+            slots[next] = message;
+            next = (next + 1) % slots.length;
+            if (size < slots.length) size++;
+        }
+
+        synchronized List<MessageReq> snapshot() {
+            List<MessageReq> messages = new ArrayList<>(size);
+            int start = (next - size + slots.length) % slots.length;
+            for (int i = 0; i < size; i++) {
+                messages.add(slots[(start + i) % slots.length]);
+            }
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.babble.common.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 채팅/이모지 발행 빈도 제한 정의.
+ * STOMP 세션별, 방별로 token bucket 을 두고 초당 허용량(per-second)과 순간 허용량(burst)을 넘는 프레임은 버린다.
+ * bucket 은 다음 토큰이 생기는 시각 하나(AtomicLong)만 CAS 로 갱신하므로 락 없이 동작한다.
+ * 세션 bucket 은 연결 종료 시, 방 bucket 은 가득 찬(쉬고 있는) 상태가 되면 방 bucket 을 확인하는 김에 1분마다 정리한다.
+ */
+@Component
+public class ChatRateLimiter {
+
+    public enum Type {
+        MESSAGE("/pub/message"), EMOJI("/pub/emoji");
+
+        private final String destination;
+
+        Type(String destination) {
+            this.destination = destination;
+        }
+
+        public static Type of(String destination) {
+            if (destination == null) return null;
+            for (Type type : values()) {
+                if (type.destination.equals(destination)) return type;
+            }
+            return null;
+        }
+    }
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, Bucket[]> sessionBuckets = new ConcurrentHashMap<>();
+    private final Map<Long, Bucket[]> roomBuckets = new ConcurrentHashMap<>();
+    private final Rate[] sessionRates = new Rate[Type.values().length];
+    private final Rate[] roomRates = new Rate[Type.values().length];
+    private final Counter[] sessionRejected = new Counter[Type.values().length];
+    private final Counter[] roomRejected = new Counter[Type.values().length];
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    public ChatRateLimiter(@Value("${babble.ratelimit.message.session-per-second:5}") double messageSessionRate,
+                           @Value("${babble.ratelimit.message.session-burst:10}") int messageSessionBurst,
+                           @Value("${babble.ratelimit.message.room-per-second:100}") double messageRoomRate,
+                           @Value("${babble.ratelimit.message.room-burst:200}") int messageRoomBurst,
+                           @Value("${babble.ratelimit.emoji.session-per-second:10}") double emojiSessionRate,
+                           @Value("${babble.ratelimit.emoji.session-burst:30}") int emojiSessionBurst,
+                           @Value("${babble.ratelimit.emoji.room-per-second:500}") double emojiRoomRate,
+                           @Value("${babble.ratelimit.emoji.room-burst:1000}") int emojiRoomBurst,
+                           MeterRegistry meterRegistry) {
+        sessionRates[Type.MESSAGE.ordinal()] = Rate.of(messageSessionRate, messageSessionBurst);
+        roomRates[Type.MESSAGE.ordinal()] = Rate.of(messageRoomRate, messageRoomBurst);
+        sessionRates[Type.EMOJI.ordinal()] = Rate.of(emojiSessionRate, emojiSessionBurst);
+        roomRates[Type.EMOJI.ordinal()] = Rate.of(emojiRoomRate, emojiRoomBurst);
+
+        for (Type type : Type.values()) {
+            String tag = type.name().toLowerCase();
+            sessionRejected[type.ordinal()] = Counter.builder("babble.chat.rate-limited")
+                    .description("빈도 제한에 걸려 버린 채팅/이모지 프레임 수")
+                    .tag("type", tag).tag("scope", "session")
+                    .register(meterRegistry);
+            roomRejected[type.ordinal()] = Counter.builder("babble.chat.rate-limited")
+                    .description("빈도 제한에 걸려 버린 채팅/이모지 프레임 수")
+                    .tag("type", tag).tag("scope", "room")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("babble.chat.rate-limiter.sessions", sessionBuckets, Map::size).register(meterRegistry);
+        Gauge.builder("babble.chat.rate-limiter.rooms", roomBuckets, Map::size).register(meterRegistry);
+    }
+
+    public boolean tryAcquireSession(String sessionId, Type type) {
+        Rate rate = sessionRates[type.ordinal()];
+        if (rate == null || sessionId == null) return true;
+        Bucket bucket = sessionBuckets.computeIfAbsent(sessionId, k -> newBuckets())[type.ordinal()];
+        if (bucket.tryAcquire(rate, System.nanoTime())) return true;
+        sessionRejected[type.ordinal()].increment();
+        return false;
+    }
+
+    public boolean tryAcquireRoom(Long roomId, Type type) {
+        Rate rate = roomRates[type.ordinal()];
+        if (rate == null || roomId == null) return true;
+        long now = System.nanoTime();
+        sweepRooms(now);
+        Bucket bucket = roomBuckets.computeIfAbsent(roomId, k -> newBuckets())[type.ordinal()];
+        if (bucket.tryAcquire(rate, now)) return true;
+        roomRejected[type.ordinal()].increment();
+        return false;
+    }
+
+    public void evictSession(String sessionId) {
+        if (sessionId != null) sessionBuckets.remove(sessionId);
+    }
+
+    // DISCONNECT 프레임 없이 끊긴 연결도 이 이벤트로 정리된다.
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        evictSession(event.getSessionId());
+    }
+
+    // 마지막 정리 후 1분이 지났으면 한 스레드만 정리한다.
+    private void sweepRooms(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) return;
+        roomBuckets.entrySet().removeIf(room -> {
+            for (Bucket bucket : room.getValue()) {
+                if (!bucket.isFull(now)) return false;
+            }
+            return true;
+        });
+    }
+
+    private static Bucket[] newBuckets() {
+        Bucket[] buckets = new Bucket[Type.values().length];
+        long now = System.nanoTime();
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket(now);
+        }
+        return buckets;
+    }
+
+    // 토큰 1개가 생기는 간격과 최대로 쌓아둘 수 있는 시간(burst * 간격)
+    private static class Rate {
+        final long intervalNanos;
+        final long capacityNanos;
+
+        Rate(long intervalNanos, long capacityNanos) {
+            this.intervalNanos = intervalNanos;
+            this.capacityNanos = capacityNanos;
+        }
+
+        // 초당 허용량이 0 이하이면 제한하지 않는다.
+        static Rate of(double perSecond, int burst) {
+            if (perSecond <= 0) return null;
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            return new Rate(interval, interval * Math.max(burst, 1));
+        }
+    }
+
+    // 다음 토큰이 모두 소진되는 시각(theoretical arrival time)만 기록하는 token bucket
+    private static class Bucket {
+        private final AtomicLong tat;
+
+        Bucket(long now) {
+            this.tat = new AtomicLong(now);
+        }
+
+        boolean tryAcquire(Rate rate, long now) {
+            while (true) {
+                long current = tat.get();
+                long next = (current - now < 0 ? now : current) + rate.intervalNanos;
+                if (next - now > rate.capacityNanos) return false;
+                if (tat.compareAndSet(current, next)) return true;
+            }
+        }
+
+        boolean isFull(long now) {
+            return tat.get() - now <= 0;
+        }
+    }
+}
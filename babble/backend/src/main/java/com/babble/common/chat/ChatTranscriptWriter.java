@@ -0,0 +1,141 @@
+package com.babble.common.chat;
+
+import com.babble.api.request.room.MessageReq;
+import com.babble.db.entity.ChatMessage;
+import com.babble.db.repository.ChatMessageRepositorySupport;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 기록(transcript)을 비동기로 모아서 저장하는 writer 정의. (write-behind)
+ * 채팅 처리 스레드는 제한된 큐에 넣기만 하고 기다리지 않으며, 큐가 가득 차면 저장하지 않고 버린 수를 센다.
+ * 컬럼 길이를 넘는 대화명/내용은 잘라서 넣는다. (한 건 때문에 batch 전체가 실패하지 않도록)
+ * 저장 스레드는 batch-size 만큼 모이거나 flush-interval-ms 가 지나거나 방이 종료되면 한 번의 JDBC batch 로 저장한다.
+ */
+@Slf4j
+@Component
+public class ChatTranscriptWriter {
+
+    // 방 종료 시 모인 메시지를 바로 저장하도록 큐에 넣는 표시
+    private static final ChatMessage FLUSH = new ChatMessage();
+
+    private final ChatMessageRepositorySupport chatMessageRepositorySupport;
+    private final BlockingQueue<ChatMessage> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public ChatTranscriptWriter(ChatMessageRepositorySupport chatMessageRepositorySupport,
+                                @Value("${babble.chat.transcript.queue-capacity:10000}") int queueCapacity,
+                                @Value("${babble.chat.transcript.batch-size:500}") int batchSize,
+                                @Value("${babble.chat.transcript.flush-interval-ms:1000}") long flushIntervalMs,
+                                MeterRegistry meterRegistry) {
+        this.chatMessageRepositorySupport = chatMessageRepositorySupport;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.written = Counter.builder("babble.chat.transcript.written")
+                .description("저장한 채팅 메시지 수")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("babble.chat.transcript.dropped")
+                .description("큐가 가득 차서 저장하지 못한 채팅 메시지 수")
+                .register(meterRegistry);
+        this.failed = Counter.builder("babble.chat.transcript.failed")
+                .description("디비 오류로 저장하지 못한 채팅 메시지 수")
+                .register(meterRegistry);
+        Gauge.builder("babble.chat.transcript.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("chat-transcript-%d").setDaemon(true).build());
+        executor.execute(this::run);
+    }
+
+    // 종료 시 남은 메시지를 모두 저장한다.
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public void add(MessageReq message) {
+        ChatMessage chatMessage = ChatMessage.builder()
+                .roomId(message.getChatroomId())
+                .nickname(truncate(message.getNickname(), ChatMessage.NICKNAME_LENGTH))
+                .content(truncate(message.getContent(), ChatMessage.CONTENT_LENGTH))
+                .sendTime(LocalDateTime.now())
+                .build();
+        if (!queue.offer(chatMessage)) dropped.increment();
+    }
+
+    private static String truncate(String value, int length) {
+        return value == null || value.length() <= length ? value : value.substring(0, length);
+    }
+
+    // 방 종료 시 호출 : 지금까지 모인 메시지를 기다리지 않고 저장하도록 요청
+    public void flush() {
+        queue.offer(FLUSH);
+    }
+
+    private void run() {
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        try {
+            while (running) {
+                ChatMessage message = queue.poll(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (message != null && message != FLUSH) {
+                    batch.add(message);
+                    if (batch.size() < batchSize) continue;
+                } else if (message == null && deadline - System.nanoTime() > 0) {
+                    continue;
+                }
+                write(batch);
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        queue.drainTo(batch);
+        batch.removeIf(message -> message == FLUSH);
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            write(new ArrayList<>(batch.subList(from, Math.min(from + batchSize, batch.size()))));
+        }
+    }
+
+    private void write(List<ChatMessage> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            chatMessageRepositorySupport.insertAll(batch);
+            written.increment(batch.size());
+        } catch (DataAccessException ex) {
+            failed.increment(batch.size());
+            log.warn("failed to write {} chat messages", batch.size(), ex);
+        }
+        batch.clear();
+    }
+}
@@ -0,0 +1,136 @@
+package com.babble.common.chat;
+
+import com.babble.api.request.room.EmojiReq;
+import com.babble.api.request.room.MessageReq;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 채팅/이모지 메시지용 간결한 텍스트 포맷 변환기 정의. (content-type: application/vnd.babble.compact)
+ * SockJS 는 바이너리 프레임을 지원하지 않으므로 텍스트로 두되, JSON 의 필드명 반복 없이 값만 길이-접두 형식으로 나열한다.
+ * <pre>
+ *   채팅   : M{chatroomId}{content}{nickname}
+ *   이모지 : E{roomId}{img}{nickname}
+ *   필드   : {길이}:{값}   (null 은 '-')     예) M2:1211:hello world3:bob
+ * </pre>
+ * STOMP SEND 프레임의 content-type 이 일치할 때만 사용되고, 그 외에는 기존 Jackson 변환기가 처리한다.
+ */
+@Component
+public class CompactMessageConverter extends AbstractMessageConverter {
+
+    public static final MimeType COMPACT = new MimeType("application", "vnd.babble.compact");
+
+    public CompactMessageConverter() {
+        super(COMPACT);
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MessageReq.class == clazz || EmojiReq.class == clazz;
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        Object payload = message.getPayload();
+        String text = payload instanceof byte[] ? new String((byte[]) payload, StandardCharsets.UTF_8) : payload.toString();
+        return decode(text);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        return encode(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static String encode(Object payload) {
+        StringBuilder sb = new StringBuilder(64);
+        if (payload instanceof MessageReq) {
+            MessageReq message = (MessageReq) payload;
+            sb.append('M');
+            field(sb, message.getChatroomId());
+            field(sb, message.getContent());
+            field(sb, message.getNickname());
+        } else if (payload instanceof EmojiReq) {
+            EmojiReq emoji = (EmojiReq) payload;
+            sb.append('E');
+            field(sb, emoji.getRoomId());
+            field(sb, emoji.getImg());
+            field(sb, emoji.getNickname());
+        } else {
+            throw new IllegalArgumentException("unsupported payload " + payload.getClass());
+        }
+        return sb.toString();
+    }
+
+    public static Object decode(String text) {
+        if (text.isEmpty()) throw new IllegalArgumentException("empty compact frame");
+        Reader reader = new Reader(text);
+        char type = text.charAt(0);
+        if (type == 'M') {
+            String roomId = reader.next();
+            MessageReq message = MessageReq.builder()
+                    .chatroomId(roomId == null ? 0 : Long.parseLong(roomId))
+                    .content(reader.next())
+                    .nickname(reader.next())
+                    .build();
+            reader.end();
+            return message;
+        } else if (type == 'E') {
+            String roomId = reader.next();
+            EmojiReq emoji = EmojiReq.builder()
+                    .roomId(roomId == null ? null : Long.valueOf(roomId))
+                    .img(reader.next())
+                    .nickname(reader.next())
+                    .build();
+            reader.end();
+            return emoji;
+        }
+        throw new IllegalArgumentException("unknown compact frame type " + type);
+    }
+
+    private static void field(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append('-');
+            return;
+        }
+        String text = value.toString();
+        sb.append(text.length()).append(':').append(text);
+    }
+
+    private static class Reader {
+        private final String text;
+        private int pos = 1;
+
+        Reader(String text) {
+            this.text = text;
+        }
+
+        String next() {
+            if (pos >= text.length()) throw new IllegalArgumentException("truncated compact frame");
+            if (text.charAt(pos) == '-') {
+                pos++;
+                return null;
+            }
+            int colon = text.indexOf(':', pos);
+            if (colon < 0) throw new IllegalArgumentException("malformed compact frame");
+            int length = Integer.parseInt(text.substring(pos, colon));
+            // 길이가 아주 크면 colon + 1 + length 가 넘칠 수 있으므로 남은 길이와 비교
+            if (length < 0 || length > text.length() - colon - 1) {
+                throw new IllegalArgumentException("truncated compact frame");
+            }
+            int end = colon + 1 + length;
+            pos = end;
+            return text.substring(colon + 1, end);
+        }
+
+        // 필드를 모두 읽은 뒤 남은 문자가 있으면 잘못된 프레임
+        void end() {
+            if (pos != text.length()) throw new IllegalArgumentException("trailing data in compact frame");
+        }
+    }
+}
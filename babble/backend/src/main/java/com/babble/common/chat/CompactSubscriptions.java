@@ -0,0 +1,82 @@
+package com.babble.common.chat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * compact 포맷 구독 주소(/sub/message-compact/{id}, /sub/emoji-compact/{id})의 구독자 수 추적 정의.
+ * 구독자가 없는 방에는 compact 사본을 직렬화/발행하지 않도록 MessageController 에서 확인한다.
+ * relay 모드에서는 다른 서버의 구독자를 알 수 없으므로 항상 구독자가 있는 것으로 본다.
+ */
+@Component
+public class CompactSubscriptions {
+
+    public static final String MESSAGE_DESTINATION = "/sub/message-compact/";
+    public static final String EMOJI_DESTINATION = "/sub/emoji-compact/";
+
+    private final boolean relay;
+
+    // 구독 주소 -> 구독 수, 세션 id -> (subscription id -> 구독 주소)
+    // 구독 수 증감은 맵 연산(merge/computeIfPresent) 안에서 처리해 0 이 되어 지워지는 것과 엇갈리지 않도록 한다.
+    private final Map<String, Integer> destinations = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    public CompactSubscriptions(@Value("${babble.broker.mode:simple}") String brokerMode) {
+        this.relay = "relay".equals(brokerMode);
+    }
+
+    public boolean hasSubscribers(String destination) {
+        return relay || destinations.containsKey(destination);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        String destination = SimpMessageHeaderAccessor.getDestination(event.getMessage().getHeaders());
+        if (!isCompact(destination)) return;
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(event.getMessage().getHeaders());
+        if (sessionId == null || subscriptionId == null) return;
+
+        String previous = sessions.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) decrement(previous);
+        destinations.merge(destination, 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(event.getMessage().getHeaders());
+        if (sessionId == null || subscriptionId == null) return;
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) return;
+        String destination = subscriptions.remove(subscriptionId);
+        if (destination != null) decrement(destination);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions == null) return;
+        for (String destination : subscriptions.values()) {
+            decrement(destination);
+        }
+    }
+
+    private void decrement(String destination) {
+        destinations.computeIfPresent(destination, (k, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private static boolean isCompact(String destination) {
+        return destination != null
+                && (destination.startsWith(MESSAGE_DESTINATION) || destination.startsWith(EMOJI_DESTINATION));
+    }
+}
@@ -0,0 +1,82 @@
+package com.babble.common.chat;
+
+import com.babble.api.response.room.EmojiBatchRes;
+import com.babble.common.broker.RoomBroker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.regex.Pattern;
+
+/**
+ * 방별 이모지 반응을 짧은 시간(window) 동안 모아 종류별 개수로 한 번에 발행하는 집계기 정의.
+ * 묶음 메시지는 /sub/emoji-batch/{roomId} 를 구독한 클라이언트에게만 전달되고,
+ * 기존 클라이언트는 그대로 /sub/emoji/{roomId} 로 한 건씩 받는다.
+ */
+@Component
+public class EmojiAggregator {
+
+    public static final String BATCH_DESTINATION = "/sub/emoji-batch/";
+
+    // 프론트의 이모지 이미지(emoji_like.png 등, 빌드 시 해시가 붙을 수 있음)만 허용
+    private static final Pattern KNOWN_EMOJI = Pattern.compile("(^|/)emoji_(like|joy|wow|heart|sad)(\\.[0-9a-f]+)?\\.png$");
+    private static final int MAX_IMG_LENGTH = 512;
+
+    @Autowired
+    RoomBroker roomBroker;
+
+    @Autowired
+    @Qualifier("brokerTaskScheduler")
+    ThreadPoolTaskScheduler brokerTaskScheduler;
+
+    @Value("${babble.emoji.batch-window-ms:100}")
+    long windowMillis;
+
+    private final Map<Long, Map<String, Long>> rooms = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> flushTask;
+
+    @PostConstruct
+    public void start() {
+        flushTask = brokerTaskScheduler.scheduleAtFixedRate(this::flush, Duration.ofMillis(windowMillis));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flushTask != null) flushTask.cancel(false);
+    }
+
+    public static boolean isKnown(String img) {
+        return img != null && img.length() <= MAX_IMG_LENGTH && KNOWN_EMOJI.matcher(img).find();
+    }
+
+    // 집계 맵 수정은 compute 안에서만 하므로, flush 가 remove 로 떼어 낸 맵에는 더 이상 반응이 더해지지 않는다.
+    public void add(Long roomId, String img) {
+        if (roomId == null || !isKnown(img)) return;
+        rooms.compute(roomId, (k, counts) -> {
+            if (counts == null) counts = new HashMap<>();
+            counts.merge(img, 1L, Long::sum);
+            return counts;
+        });
+    }
+
+    // 방마다 이번 window 의 집계 맵을 떼어 내 발행한다. 그 뒤에 들어온 반응은 새 맵에 모여 다음 window 에 나간다.
+    void flush() {
+        for (Long roomId : rooms.keySet()) {
+            Map<String, Long> counts = rooms.remove(roomId);
+            if (counts == null || counts.isEmpty()) continue;
+            roomBroker.publish(BATCH_DESTINATION + roomId, EmojiBatchRes.builder()
+                    .roomId(roomId)
+                    .counts(counts)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.babble.common.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 접근 로그를 모아두는 고정 크기 링 버퍼 정의.
+ * 요청 스레드는 순번을 하나 받아 해당 칸에 쓰기만 하고 락을 잡거나 기다리지 않는다.
+ * 읽는 쪽(flush 스레드)은 하나뿐이며, 한 바퀴 이상 밀려 덮어써진 항목은 버린 것으로 센다.
+ */
+public class AccessLogBuffer {
+
+    private final AtomicReferenceArray<AccessLogEntry> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private long tail = 0;
+
+    // capacity 는 2의 거듭제곱으로 올림
+    public AccessLogBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void add(AccessLogEntry entry) {
+        long seq = head.getAndIncrement();
+        entry.seq = seq;
+        slots.set((int) (seq & mask), entry);
+    }
+
+    // flush 스레드에서만 호출. 넘겨준 항목 수는 consumer 로, 덮어써져 잃은 항목 수는 반환값으로 알려준다.
+    public long drain(Consumer<AccessLogEntry> consumer) {
+        long end = head.get();
+        long lost = 0;
+        if (end - tail > slots.length()) {
+            lost += end - slots.length() - tail;
+            tail = end - slots.length();
+        }
+        while (tail < end) {
+            AccessLogEntry entry = slots.get((int) (tail & mask));
+            if (entry == null || entry.seq < tail) {
+                // 순번은 받았지만 아직 쓰지 않은 칸. 다음 flush 때 다시 읽는다.
+                break;
+            }
+            if (entry.seq == tail) {
+                consumer.accept(entry);
+            } else {
+                lost++;
+            }
+            tail++;
+        }
+        return lost;
+    }
+
+    public long pending() {
+        return Math.max(head.get() - tail, 0);
+    }
+}
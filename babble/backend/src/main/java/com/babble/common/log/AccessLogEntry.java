@@ -0,0 +1,34 @@
+package com.babble.common.log;
+
+import lombok.Getter;
+
+/**
+ * 요청 한 건의 접근 로그 정의.
+ * 요청 스레드에서는 값만 담고, 문자열 변환은 flush 스레드에서 한다.
+ */
+@Getter
+public class AccessLogEntry {
+    // 링 버퍼에서 부여한 순번
+    long seq;
+
+    private final long timestamp;
+    private final String method;
+    private final String path;
+    private final int status;
+    private final long latencyMicros;
+    private final long requestBytes;
+    private final long responseBytes;
+    private final String body;
+
+    public AccessLogEntry(long timestamp, String method, String path, int status, long latencyMicros,
+                          long requestBytes, long responseBytes, String body) {
+        this.timestamp = timestamp;
+        this.method = method;
+        this.path = path;
+        this.status = status;
+        this.latencyMicros = latencyMicros;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.body = body;
+    }
+}
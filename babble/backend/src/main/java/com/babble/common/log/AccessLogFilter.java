@@ -0,0 +1,102 @@
+package com.babble.common.log;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API 접근 로그 필터 정의.
+ * 요청마다 method, 경로 템플릿, 상태 코드, 처리 시간, 크기만 AccessLogWriter 의 링 버퍼에 넣고, 기록은 flush 스레드가 한다.
+ * 본문은 앞부분(max-body-length)만 보관하며, 샘플링된 요청이나 slow-ms 이상 걸린 요청일 때만 로그에 남긴다.
+ * 헤더(토큰)는 기록하지 않는다.
+ * 로그인/회원 API(body-excluded-paths)는 본문을 아예 보관하지 않고, 그 밖의 본문도 password 등 비밀 값은 가려서 기록한다.
+ */
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private final AccessLogWriter writer;
+    private final double sampleRate;
+    private final long slowNanos;
+    private final int maxBodyLength;
+    private final String[] bodyExcludedPaths;
+
+    public AccessLogFilter(AccessLogWriter writer,
+                           @Value("${babble.access-log.sample-rate:0.01}") double sampleRate,
+                           @Value("${babble.access-log.slow-ms:1000}") long slowMs,
+                           @Value("${babble.access-log.max-body-length:2048}") int maxBodyLength,
+                           @Value("${babble.access-log.body-excluded-paths:/api/v1/auth,/api/v1/users}") String[] bodyExcludedPaths) {
+        this.writer = writer;
+        this.sampleRate = sampleRate;
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMs);
+        this.maxBodyLength = maxBodyLength;
+        this.bodyExcludedPaths = bodyExcludedPaths;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        // 본문이 있는 요청만 앞부분을 복사해둔다. (본문이 없는 GET 과 본문 제외 경로는 감싸지 않음)
+        ContentCachingRequestWrapper cached = request.getContentLengthLong() > 0 && maxBodyLength > 0
+                && !isBodyExcluded(request) ? new ContentCachingRequestWrapper(request, maxBodyLength) : null;
+        try {
+            filterChain.doFilter(cached == null ? request : cached, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            String body = null;
+            if (cached != null && (elapsed >= slowNanos || sample())) {
+                body = new String(cached.getContentAsByteArray(), StandardCharsets.UTF_8);
+            }
+            writer.add(new AccessLogEntry(System.currentTimeMillis(),
+                    request.getMethod(),
+                    pathTemplate(request),
+                    response.getStatus(),
+                    TimeUnit.NANOSECONDS.toMicros(elapsed),
+                    request.getContentLengthLong(),
+                    contentLength(response),
+                    body));
+        }
+    }
+
+    private boolean isBodyExcluded(HttpServletRequest request) {
+        String path = request.getServletPath();
+        for (String excluded : bodyExcludedPaths) {
+            // 경로 자체와 그 하위 경로 (/api/v1/users, /api/v1/users/password)
+            if (!excluded.isEmpty() && path.startsWith(excluded)
+                    && (path.length() == excluded.length() || path.charAt(excluded.length()) == '/')) return true;
+        }
+        return false;
+    }
+
+    private boolean sample() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    // /api/v1/room/{roomId} 처럼 매칭된 경로 템플릿을 쓰고, 매칭되지 않은 요청은 실제 경로를 쓴다.
+    private static String pathTemplate(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+
+    // 응답 크기는 Content-Length 가 정해진 경우에만 기록 (chunked 응답은 -1)
+    private static long contentLength(HttpServletResponse response) {
+        String length = response.getHeader("Content-Length");
+        if (length == null) return -1;
+        try {
+            return Long.parseLong(length);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
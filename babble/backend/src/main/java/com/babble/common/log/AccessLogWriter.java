@@ -0,0 +1,95 @@
+package com.babble.common.log;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 접근 로그 기록 정의.
+ * AccessLogFilter 가 넣은 항목을 링 버퍼에 모았다가 flush 스레드가 access 로거로 기록한다.
+ * 필터 빈은 톰캣도 @PostConstruct/@PreDestroy 를 다시 처리하므로, flush 스레드의 생명주기는 필터와 분리해 여기서 관리한다.
+ */
+@Slf4j
+@Component
+public class AccessLogWriter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("com.babble.access");
+    // JSON 본문의 비밀 값 ("password":"..." 등). max-body-length 에서 잘려 닫는 따옴표가 없는 값도 가린다.
+    private static final Pattern SECRET_FIELD = Pattern.compile(
+            "(\"(?:password|newPassword|token|accessToken|refreshToken|secret)\"\\s*:\\s*)\"(?:[^\"\\\\]|\\\\.)*(?:\"|$)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final AccessLogBuffer buffer;
+    private final long flushIntervalMs;
+    private final Counter dropped;
+    private ScheduledExecutorService executor;
+
+    public AccessLogWriter(@Value("${babble.access-log.buffer-size:8192}") int bufferSize,
+                           @Value("${babble.access-log.flush-interval-ms:1000}") long flushIntervalMs,
+                           MeterRegistry meterRegistry) {
+        this.buffer = new AccessLogBuffer(bufferSize);
+        this.flushIntervalMs = flushIntervalMs;
+        this.dropped = Counter.builder("babble.access-log.dropped")
+                .description("버퍼가 밀려 기록하지 못한 접근 로그 수")
+                .register(meterRegistry);
+        Gauge.builder("babble.access-log.pending", buffer, AccessLogBuffer::pending).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("access-log-%d").setDaemon(true).build());
+        executor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // 종료 시 남은 로그를 모두 기록한다.
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public void add(AccessLogEntry entry) {
+        buffer.add(entry);
+    }
+
+    void flush() {
+        try {
+            long lost = buffer.drain(this::write);
+            if (lost > 0) dropped.increment(lost);
+        } catch (RuntimeException e) {
+            log.warn("failed to flush access log", e);
+        }
+    }
+
+    static String redact(String body) {
+        return SECRET_FIELD.matcher(body).replaceAll("$1\"***\"");
+    }
+
+    private void write(AccessLogEntry entry) {
+        if (entry.getBody() == null) {
+            accessLog.info("{} {} {} {} {}us req={} res={}", Instant.ofEpochMilli(entry.getTimestamp()),
+                    entry.getMethod(), entry.getPath(), entry.getStatus(), entry.getLatencyMicros(),
+                    entry.getRequestBytes(), entry.getResponseBytes());
+        } else {
+            accessLog.info("{} {} {} {} {}us req={} res={} body={}", Instant.ofEpochMilli(entry.getTimestamp()),
+                    entry.getMethod(), entry.getPath(), entry.getStatus(), entry.getLatencyMicros(),
+                    entry.getRequestBytes(), entry.getResponseBytes(), redact(entry.getBody()));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.babble.common.room;
+
+import com.babble.db.entity.Category;
+import com.babble.db.repository.CategoryRepositorySupport;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 카테고리 이름 <-> id 목록을 메모리에 유지하는 레지스트리 정의.
+ * 카테고리 테이블은 거의 바뀌지 않으므로 서버 시작 시 한 번 읽어두고, 바뀌면 refresh 로 다시 읽는다.
+ * 목록에 없는 이름은 디비에서 한 번 더 찾아보고 있으면 추가한다.
+ * 이름은 요청 경로에서 오므로, 디비에도 없던 이름은 miss-ttl-ms 동안 기억해 같은 이름으로 다시 조회하지 않는다. (최대 miss-max-size 개)
+ */
+@Slf4j
+@Component
+public class CategoryRegistry {
+
+    @Autowired
+    CategoryRepositorySupport categoryRepositorySupport;
+
+    @Value("${babble.category.miss-ttl-ms:60000}")
+    long missTtlMillis;
+
+    @Value("${babble.category.miss-max-size:1000}")
+    long missMaxSize;
+
+    // 읽기는 락 없이 하고, 변경 시에는 새 맵으로 통째로 교체
+    private volatile Map<String, Category> byName = Collections.emptyMap();
+    private volatile Map<Long, Category> byId = Collections.emptyMap();
+    // 디비에도 없던 이름
+    private Cache<String, Boolean> misses;
+
+    @PostConstruct
+    public void init() {
+        misses = CacheBuilder.newBuilder()
+                .maximumSize(missMaxSize)
+                .expireAfterWrite(missTtlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        List<Category> categories = categoryRepositorySupport.findAllCategory();
+        Map<String, Category> names = new HashMap<>();
+        Map<Long, Category> ids = new HashMap<>();
+        for (Category category : categories) {
+            names.put(category.getName(), category);
+            ids.put(category.getId(), category);
+        }
+        byName = names;
+        byId = ids;
+        misses.invalidateAll();
+        log.info("category registry loaded {} categories", ids.size());
+    }
+
+    public Category get(String name) {
+        if (name == null) return null;
+        Category category = byName.get(name);
+        if (category != null) return category;
+        if (misses.getIfPresent(name) != null) return null;
+        category = categoryRepositorySupport.findCategoryByCategoryName(name);
+        if (category != null) add(category);
+        else misses.put(name, Boolean.TRUE);
+        return category;
+    }
+
+    // 디비를 조회하지 않고 이미 읽어둔 카테고리인지만 확인 (메트릭 태그 등)
+    public boolean contains(String name) {
+        return name != null && byName.containsKey(name);
+    }
+
+    public Long getId(String name) {
+        Category category = get(name);
+        return category == null ? null : category.getId();
+    }
+
+    public String getName(Long id) {
+        if (id == null) return null;
+        Category category = byId.get(id);
+        return category == null ? null : category.getName();
+    }
+
+    private synchronized void add(Category category) {
+        Map<String, Category> names = new HashMap<>(byName);
+        Map<Long, Category> ids = new HashMap<>(byId);
+        names.put(category.getName(), category);
+        ids.put(category.getId(), category);
+        byName = names;
+        byId = ids;
+    }
+}
@@ -0,0 +1,37 @@
+package com.babble.common.room;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 진행중인 방의 목록 표시용 정보 정의.
+ * 인덱스 정렬 키(시청자수)가 바뀌지 않도록 불변 객체로 두고, 시청자수가 바뀌면 새 객체로 교체한다.
+ */
+@Getter
+public class LiveRoom {
+    private final Long id;
+    private final String title;
+    private final String thumbnailUrl;
+    private final String category;
+    private final LocalDateTime createTime;
+    private final long viewers;
+    private final List<String> hashtags;
+
+    public LiveRoom(Long id, String title, String thumbnailUrl, String category,
+                    LocalDateTime createTime, long viewers, List<String> hashtags) {
+        this.id = id;
+        this.title = title;
+        this.thumbnailUrl = thumbnailUrl;
+        this.category = category;
+        this.createTime = createTime;
+        this.viewers = viewers;
+        this.hashtags = Collections.unmodifiableList(hashtags);
+    }
+
+    public LiveRoom withViewers(long viewers) {
+        return new LiveRoom(id, title, thumbnailUrl, category, createTime, Math.max(viewers, 0), hashtags);
+    }
+}
@@ -0,0 +1,272 @@
+package com.babble.common.room;
+
+import com.babble.db.entity.QCategory;
+import com.babble.db.entity.QRoom;
+import com.babble.db.entity.QUserRoom;
+import com.babble.db.repository.RoomHashtagRepositorySupport;
+import com.babble.db.repository.RoomRepositorySupport;
+import com.querydsl.core.Tuple;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 진행중인 방 목록을 메모리에 유지하는 디렉토리 정의.
+ * 인기순(시청자수)/최신순 정렬 인덱스를 전체 및 카테고리별로 유지하여 목록 조회 시 GROUP BY 쿼리 없이 응답한다.
+ * 서버 시작 시 DB로부터 다시 구성한다.
+ * 커서 조회(bestAfter/recentAfter)는 커서 위치에서 바로 시작하므로 페이지 크기만큼만 읽고,
+ * 페이지 번호 조회(best/recent)는 같은 경로로 앞의 offset 개를 건너뛰므로 깊은 페이지일수록 느려진다.
+ * 시청자 수가 바뀌면 새 항목을 먼저 넣고 이전 항목을 지우므로 읽는 쪽에서 방이 빠져 보이지 않는다.
+ * 그 사이 같은 방이 두 번 보일 수 있어, 목록은 항목의 방 id 로 현재 방 정보를 찾아 중복을 건너뛴다.
+ * relay 모드(여러 서버)에서는 다른 서버에서 만들거나 종료한 방이 반영되지 않으므로 목록과 진행 여부의 기준으로 쓰지 않는다 (isAuthoritative).
+ */
+@Slf4j
+@Component
+public class LiveRoomDirectory {
+
+    private static final Comparator<LiveRoom> RECENT_ORDER = Comparator
+            .comparing(LiveRoom::getCreateTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(LiveRoom::getId, Comparator.reverseOrder());
+
+    private static final Comparator<LiveRoom> BEST_ORDER = Comparator
+            .comparingLong(LiveRoom::getViewers).reversed()
+            .thenComparing(RECENT_ORDER);
+
+    @Autowired
+    RoomRepositorySupport roomRepositorySupport;
+
+    @Autowired
+    RoomHashtagRepositorySupport roomHashtagRepositorySupport;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${babble.broker.mode:simple}")
+    String brokerMode;
+
+    QRoom qRoom = QRoom.room;
+    QCategory qCategory = QCategory.category;
+    QUserRoom qUserRoom = QUserRoom.userRoom;
+
+    private final Map<Long, LiveRoom> rooms = new ConcurrentHashMap<>();
+    private final Index all = new Index();
+    private final Map<String, Index> categories = new ConcurrentHashMap<>();
+    private final RoomSearchIndex searchIndex = new RoomSearchIndex();
+    private volatile boolean loaded = false;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("babble.room.live", rooms, Map::size)
+                .description("진행중인 방 수")
+                .register(meterRegistry);
+        Gauge.builder("babble.room.viewers", this, LiveRoomDirectory::totalViewers)
+                .description("진행중인 방의 전체 시청자 수")
+                .register(meterRegistry);
+    }
+
+    // 서버 시작 시 진행중인 방과 시청자수를 DB에서 읽어와 인덱스 구성
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Tuple> roomInfo = roomRepositorySupport.activeRoomInfo();
+        List<Long> roomIds = new ArrayList<>();
+        for (Tuple tuple : roomInfo) {
+            roomIds.add(tuple.get(qRoom.id));
+        }
+        Map<Long, List<String>> hashtagMap = roomHashtagRepositorySupport.findHashtagNameByRoomIds(roomIds);
+
+        for (Tuple tuple : roomInfo) {
+            Long roomId = tuple.get(qRoom.id);
+            Long viewers = tuple.get(qUserRoom.room.id.count());
+            put(new LiveRoom(roomId,
+                    tuple.get(qRoom.title),
+                    tuple.get(qRoom.thumbnailUrl),
+                    tuple.get(qCategory.name),
+                    tuple.get(qRoom.createTime),
+                    viewers == null ? 0 : viewers,
+                    hashtagMap.getOrDefault(roomId, new ArrayList<>())));
+        }
+        loaded = true;
+        log.info("live room directory loaded {} rooms", rooms.size());
+    }
+
+    public void put(LiveRoom room) {
+        rooms.compute(room.getId(), (id, old) -> {
+            if (old == null) {
+                index(room);
+            } else {
+                reindex(old, room);
+                searchIndex.remove(old);
+            }
+            searchIndex.add(room);
+            return room;
+        });
+    }
+
+    public void remove(Long roomId) {
+        rooms.computeIfPresent(roomId, (id, old) -> {
+            unindex(old);
+            searchIndex.remove(old);
+            return null;
+        });
+    }
+
+    public void updateViewers(Long roomId, long delta) {
+        rooms.computeIfPresent(roomId, (id, old) -> {
+            LiveRoom room = old.withViewers(old.getViewers() + delta);
+            reindex(old, room);
+            return room;
+        });
+    }
+
+    public LiveRoom get(Long roomId) {
+        return rooms.get(roomId);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // 이 서버의 목록만으로 진행중인 방 전체를 알 수 있는지 (적재를 마친 단일 서버 모드)
+    public boolean isAuthoritative() {
+        return loaded && !"relay".equals(brokerMode);
+    }
+
+    public int size() {
+        return rooms.size();
+    }
+
+    private long totalViewers() {
+        long sum = 0;
+        for (LiveRoom room : rooms.values()) {
+            sum += room.getViewers();
+        }
+        return sum;
+    }
+
+    // 페이지 번호 조회 : 첫 페이지부터 offset 개를 건너뛰므로 O(offset + limit). 깊은 페이지는 bestAfter 를 사용
+    public List<LiveRoom> best(String categoryName, int offset, int limit) {
+        Index index = indexOf(categoryName);
+        if (index == null) return new ArrayList<>();
+        return page(index.best, null, offset, limit);
+    }
+
+    public List<LiveRoom> recent(String categoryName, int offset, int limit) {
+        Index index = indexOf(categoryName);
+        if (index == null) return new ArrayList<>();
+        return page(index.recent, null, offset, limit);
+    }
+
+    // 커서 이후의 방 목록 조회 (커서가 없으면 첫 페이지). 커서 위치를 바로 찾으므로 O(log n + limit)
+    public List<LiveRoom> bestAfter(String categoryName, RoomCursor cursor, int limit) {
+        Index index = indexOf(categoryName);
+        if (index == null) return new ArrayList<>();
+        return page(index.best, cursor, 0, limit);
+    }
+
+    public List<LiveRoom> recentAfter(String categoryName, RoomCursor cursor, int limit) {
+        Index index = indexOf(categoryName);
+        if (index == null) return new ArrayList<>();
+        return page(index.recent, cursor, 0, limit);
+    }
+
+    // 제목/해시태그에 검색어가 포함된 방을 시청자수 순으로 조회
+    public List<LiveRoom> search(String keyword, int offset, int limit) {
+        List<LiveRoom> matched = new ArrayList<>();
+        for (Long roomId : searchIndex.candidates(keyword)) {
+            LiveRoom room = rooms.get(roomId);
+            if (room != null && RoomSearchIndex.matches(room, keyword)) matched.add(room);
+        }
+        matched.sort(BEST_ORDER);
+
+        if (offset >= matched.size()) return new ArrayList<>();
+        return new ArrayList<>(matched.subList(offset, Math.min(offset + limit, matched.size())));
+    }
+
+    private Index indexOf(String categoryName) {
+        if (categoryName == null || categoryName.equals("all")) return all;
+        return categories.get(categoryName);
+    }
+
+    // 인덱스 항목은 바뀌는 중인 이전 값일 수 있으므로 방 id 로 현재 방 정보를 찾고, 이미 담은 방과 종료된 방은 건너뛴다.
+    private List<LiveRoom> page(NavigableSet<LiveRoom> set, RoomCursor cursor, int offset, int limit) {
+        NavigableSet<LiveRoom> from = cursor == null ? set : set.tailSet(cursor.toProbe(), false);
+        List<LiveRoom> result = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        int skipped = 0;
+        for (LiveRoom entry : from) {
+            if (result.size() >= limit) break;
+            LiveRoom room = rooms.get(entry.getId());
+            if (room == null || !seen.add(room.getId())) continue;
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            result.add(room);
+        }
+        return result;
+    }
+
+    private void index(LiveRoom room) {
+        all.add(room);
+        if (room.getCategory() != null) {
+            categories.computeIfAbsent(room.getCategory(), k -> new Index()).add(room);
+        }
+    }
+
+    private void unindex(LiveRoom room) {
+        all.remove(room);
+        if (room.getCategory() != null) {
+            Index index = categories.get(room.getCategory());
+            if (index != null) index.remove(room);
+        }
+    }
+
+    // 새 항목을 먼저 넣은 뒤 이전 항목을 지운다. 정렬 위치가 같으면 새 항목은 들어가지 않으므로 이전 항목을 그대로 둔다.
+    private void reindex(LiveRoom old, LiveRoom room) {
+        index(room);
+        all.removeStale(old, room);
+        if (old.getCategory() != null) {
+            Index index = categories.get(old.getCategory());
+            if (index == null) return;
+            if (old.getCategory().equals(room.getCategory())) index.removeStale(old, room);
+            else index.remove(old);
+        }
+    }
+
+    private static class Index {
+        final NavigableSet<LiveRoom> best = new ConcurrentSkipListSet<>(BEST_ORDER);
+        final NavigableSet<LiveRoom> recent = new ConcurrentSkipListSet<>(RECENT_ORDER);
+
+        void add(LiveRoom room) {
+            best.add(room);
+            recent.add(room);
+        }
+
+        void remove(LiveRoom room) {
+            best.remove(room);
+            recent.remove(room);
+        }
+
+        void removeStale(LiveRoom old, LiveRoom current) {
+            if (BEST_ORDER.compare(old, current) != 0) best.remove(old);
+            if (RECENT_ORDER.compare(old, current) != 0) recent.remove(old);
+        }
+    }
+}
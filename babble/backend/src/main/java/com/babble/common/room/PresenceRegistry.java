@@ -0,0 +1,236 @@
+package com.babble.common.room;
+
+import com.babble.api.service.UserRoomService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 방별 현재 참여 유저(presence) 보관소 정의.
+ * 입장/퇴장 API 와 STOMP 구독/연결 종료(SessionLifecycleTracker)로 메모리에서 갱신하고, 시청자 수는 LiveRoomDirectory 에 바로 반영한다.
+ * user_room 테이블은 바뀐 유저만 모아 checkpoint-interval-ms 마다 비동기로 맞춘다.
+ * 유저 단위 갱신은 ConcurrentHashMap.compute 로 직렬화되므로 다른 유저의 입장/퇴장과는 서로 막지 않는다.
+ * 방의 참여 유저 추가/제거와 시청자 수 반영은 방 단위 compute 안에서 처리해 방 종료(closeRoom)와 엇갈리지 않도록 한다.
+ */
+@Slf4j
+@Component
+public class PresenceRegistry {
+
+    @Autowired
+    LiveRoomDirectory liveRoomDirectory;
+
+    @Autowired
+    UserRoomService userRoomService;
+
+    @Value("${babble.presence.checkpoint-interval-ms:1000}")
+    long checkpointIntervalMillis;
+
+    // 종료한 방을 기억하는 시간. 종료와 동시에 들어온 입장이 방을 다시 만들지 않도록 한다.
+    @Value("${babble.room.closed-ttl-ms:60000}")
+    long closedTtlMs;
+
+    // 방 id -> 참여 유저 id
+    private final Map<Long, Set<Long>> rooms = new ConcurrentHashMap<>();
+    // 유저 id -> 참여중인 방 id (유저는 한 번에 한 방에만 참여)
+    private final Map<Long, Long> userRooms = new ConcurrentHashMap<>();
+    // 유저 id -> 현재 방에 입장한 시각
+    private final Map<Long, Long> enteredAt = new ConcurrentHashMap<>();
+    // user_room 에 아직 반영하지 않은 유저 id
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // 이 서버에서 최근 종료한 방 id
+    private Cache<Long, Boolean> closedRooms;
+    private ScheduledExecutorService checkpointExecutor;
+
+    @PostConstruct
+    public void start() {
+        closedRooms = CacheBuilder.newBuilder()
+                .expireAfterWrite(closedTtlMs, TimeUnit.MILLISECONDS)
+                .build();
+        checkpointExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("presence-checkpoint-%d").setDaemon(true).build());
+        checkpointExecutor.scheduleWithFixedDelay(this::checkpoint,
+                checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        checkpointExecutor.shutdown();
+        checkpointExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        checkpoint();
+    }
+
+    // 재시작 후에도 참여 정보가 유지되도록 user_room 에서 불러온다. (시청자 수는 LiveRoomDirectory 가 같은 테이블에서 불러옴)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, Long> active = userRoomService.getActiveUserRoom();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Long> userRoom : active.entrySet()) {
+            userRooms.putIfAbsent(userRoom.getKey(), userRoom.getValue());
+            enteredAt.putIfAbsent(userRoom.getKey(), now);
+            rooms.compute(userRoom.getValue(), (id, users) -> {
+                if (users == null) users = ConcurrentHashMap.newKeySet();
+                users.add(userRoom.getKey());
+                return users;
+            });
+        }
+        log.info("presence registry loaded {} users", active.size());
+    }
+
+    // 이미 종료한 방이면 입장시키지 않고 false 를 돌려준다.
+    public boolean enter(Long userId, Long roomId) {
+        boolean[] entered = new boolean[1];
+        userRooms.compute(userId, (id, previous) -> {
+            if (!joinRoom(roomId, userId)) return previous;
+            if (previous != null && !previous.equals(roomId)) leaveRoom(previous, userId);
+            enteredAt.put(userId, System.currentTimeMillis());
+            entered[0] = true;
+            return roomId;
+        });
+        if (entered[0]) dirty.add(userId);
+        return entered[0];
+    }
+
+    public void exit(Long userId) {
+        userRooms.computeIfPresent(userId, (id, roomId) -> {
+            leaveRoom(roomId, userId);
+            enteredAt.remove(userId);
+            return null;
+        });
+        dirty.add(userId);
+    }
+
+    // 정리 작업용 : enteredBefore 이후에 다시 입장하지 않은 경우에만 퇴장 처리
+    public boolean exitIfEnteredBefore(Long userId, long enteredBefore) {
+        boolean[] exited = new boolean[1];
+        userRooms.computeIfPresent(userId, (id, roomId) -> {
+            if (enteredAt.getOrDefault(userId, 0L) >= enteredBefore) return roomId;
+            leaveRoom(roomId, userId);
+            enteredAt.remove(userId);
+            exited[0] = true;
+            return null;
+        });
+        if (exited[0]) dirty.add(userId);
+        return exited[0];
+    }
+
+    // 방 종료 시 참여 유저를 모두 내보낸다. (방이 목록에서 빠지므로 시청자 수는 갱신하지 않음)
+    // 종료 표시를 먼저 남기므로, 방을 떼어낸 뒤에는 joinRoom 이 같은 방을 다시 만들지 않는다.
+    public void closeRoom(Long roomId) {
+        closedRooms.put(roomId, Boolean.TRUE);
+        Set<Long> users = rooms.remove(roomId);
+        if (users == null) return;
+        for (Long userId : users) {
+            if (userRooms.remove(userId, roomId)) enteredAt.remove(userId);
+            dirty.add(userId);
+        }
+    }
+
+    public Long getRoomId(Long userId) {
+        return userRooms.get(userId);
+    }
+
+    // 현재 방에 참여중인 모든 유저 id
+    public Set<Long> getUserIds() {
+        return Collections.unmodifiableSet(userRooms.keySet());
+    }
+
+    public long getEnteredAt(Long userId) {
+        return enteredAt.getOrDefault(userId, 0L);
+    }
+
+    public int count(Long roomId) {
+        Set<Long> users = rooms.get(roomId);
+        return users == null ? 0 : users.size();
+    }
+
+    public Set<Long> getUsers(Long roomId) {
+        Set<Long> users = rooms.get(roomId);
+        return users == null ? Collections.emptySet() : Collections.unmodifiableSet(users);
+    }
+
+    void checkpoint() {
+        if (dirty.isEmpty()) return;
+        Map<Long, Long> presence = new HashMap<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long userId = it.next();
+            it.remove();
+            presence.put(userId, userRooms.get(userId));
+        }
+        try {
+            userRoomService.checkpoint(presence);
+        } catch (DataIntegrityViolationException ex) {
+            // 없는 방 등 제약 조건에 걸리는 행 때문에 나머지까지 계속 실패하지 않도록 유저별로 나눠 반영
+            checkpointEach(presence);
+        } catch (RuntimeException ex) {
+            // 다음 checkpoint 에서 다시 반영
+            dirty.addAll(presence.keySet());
+            log.warn("presence checkpoint failed for {} users", presence.size(), ex);
+        }
+    }
+
+    private void checkpointEach(Map<Long, Long> presence) {
+        for (Map.Entry<Long, Long> userRoom : presence.entrySet()) {
+            try {
+                userRoomService.checkpoint(Collections.singletonMap(userRoom.getKey(), userRoom.getValue()));
+            } catch (DataIntegrityViolationException ex) {
+                log.warn("dropped presence of user {} in room {} : {}", userRoom.getKey(), userRoom.getValue(),
+                        ex.getMostSpecificCause().getMessage());
+                discard(userRoom.getKey(), userRoom.getValue());
+            } catch (RuntimeException ex) {
+                dirty.add(userRoom.getKey());
+                log.warn("presence checkpoint failed for user {}", userRoom.getKey(), ex);
+            }
+        }
+    }
+
+    // 디비에 반영할 수 없는 참여 정보는 메모리에서도 지운다. (그 사이 다른 방으로 옮겼으면 그대로 둠)
+    private void discard(Long userId, Long roomId) {
+        if (roomId == null) return;
+        userRooms.computeIfPresent(userId, (id, current) -> {
+            if (!current.equals(roomId)) return current;
+            leaveRoom(roomId, userId);
+            enteredAt.remove(userId);
+            return null;
+        });
+    }
+
+    // 종료한 방이면 false. 추가와 시청자 수 반영은 방의 compute 안에서 처리한다.
+    private boolean joinRoom(Long roomId, Long userId) {
+        boolean[] joined = new boolean[1];
+        rooms.compute(roomId, (id, users) -> {
+            if (closedRooms.getIfPresent(roomId) != null) return users;
+            if (users == null) users = ConcurrentHashMap.newKeySet();
+            if (users.add(userId)) liveRoomDirectory.updateViewers(roomId, 1);
+            joined[0] = true;
+            return users;
+        });
+        return joined[0];
+    }
+
+    // 마지막 유저가 나가면 같은 compute 안에서 방을 지운다.
+    private void leaveRoom(Long roomId, Long userId) {
+        rooms.computeIfPresent(roomId, (id, users) -> {
+            if (users.remove(userId)) liveRoomDirectory.updateViewers(roomId, -1);
+            return users.isEmpty() ? null : users;
+        });
+    }
+}
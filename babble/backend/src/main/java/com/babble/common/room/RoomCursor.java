@@ -0,0 +1,53 @@
+package com.babble.common.room;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+
+/**
+ * 방 목록 커서(keyset) 페이지네이션용 커서 정의.
+ * 마지막으로 내려준 방의 (시청자수, 생성시간, id)를 담고 클라이언트에는 불투명한 문자열로 전달한다.
+ */
+@Getter
+public class RoomCursor {
+    private static final String DELIMITER = "|";
+
+    private final long viewers;
+    private final LocalDateTime createTime;
+    private final Long id;
+
+    public RoomCursor(long viewers, LocalDateTime createTime, Long id) {
+        this.viewers = viewers;
+        this.createTime = createTime;
+        this.id = id;
+    }
+
+    public static RoomCursor of(LiveRoom room) {
+        return new RoomCursor(room.getViewers(), room.getCreateTime(), room.getId());
+    }
+
+    public String encode() {
+        String raw = viewers + DELIMITER + createTime + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 커서가 없으면 첫 페이지(null), 형식이 잘못된 경우 IllegalArgumentException
+    public static RoomCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) throw new IllegalArgumentException("invalid cursor");
+            return new RoomCursor(Long.parseLong(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("invalid cursor", ex);
+        }
+    }
+
+    LiveRoom toProbe() {
+        return new LiveRoom(id, null, null, null, createTime, viewers, Collections.emptyList());
+    }
+}
@@ -0,0 +1,100 @@
+package com.babble.common.room;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 진행중인 방의 제목/해시태그에 대한 n-gram 역색인 정의.
+ * 한글은 형태소 분석 없이도 부분 검색이 되도록 글자 단위 1-gram, 2-gram 으로 색인한다.
+ * 2-gram 교집합은 후보일 뿐이므로 실제 포함 여부는 호출하는 쪽에서 다시 확인한다.
+ */
+public class RoomSearchIndex {
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    public void add(LiveRoom room) {
+        // remove 가 같은 gram 의 빈 집합을 지우는 것과 겹치지 않도록 추가도 compute 안에서 한다.
+        for (String gram : grams(room)) {
+            postings.compute(gram, (k, ids) -> {
+                if (ids == null) ids = ConcurrentHashMap.newKeySet();
+                ids.add(room.getId());
+                return ids;
+            });
+        }
+    }
+
+    public void remove(LiveRoom room) {
+        for (String gram : grams(room)) {
+            postings.computeIfPresent(gram, (k, ids) -> {
+                ids.remove(room.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    // 검색어의 모든 gram 을 포함하는 방 id 후보
+    public Set<Long> candidates(String keyword) {
+        String normalized = normalize(keyword);
+        if (normalized.isEmpty()) return Collections.emptySet();
+
+        List<String> grams = new ArrayList<>();
+        if (normalized.length() == 1) grams.add(normalized);
+        else grams.addAll(bigrams(normalized));
+
+        Set<Long> result = null;
+        for (String gram : grams) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) return Collections.emptySet();
+            if (result == null) result = new HashSet<>(ids);
+            else result.retainAll(ids);
+            if (result.isEmpty()) return result;
+        }
+        return result;
+    }
+
+    // 제목 또는 해시태그에 검색어가 포함되어 있는지 (LIKE '%keyword%' 와 동일한 판정)
+    public static boolean matches(LiveRoom room, String keyword) {
+        String normalized = normalize(keyword);
+        if (room.getTitle() != null && normalize(room.getTitle()).contains(normalized)) return true;
+        for (String hashtag : room.getHashtags()) {
+            if (normalize(hashtag).contains(normalized)) return true;
+        }
+        return false;
+    }
+
+    private static Set<String> grams(LiveRoom room) {
+        Set<String> grams = new HashSet<>();
+        addGrams(grams, room.getTitle());
+        for (String hashtag : room.getHashtags()) {
+            addGrams(grams, hashtag);
+        }
+        return grams;
+    }
+
+    private static void addGrams(Set<String> grams, String text) {
+        if (text == null) return;
+        String normalized = normalize(text);
+        for (int i = 0; i < normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + 1));
+        }
+        grams.addAll(bigrams(normalized));
+    }
+
+    private static List<String> bigrams(String normalized) {
+        List<String> bigrams = new ArrayList<>();
+        for (int i = 0; i + 2 <= normalized.length(); i++) {
+            bigrams.add(normalized.substring(i, i + 2));
+        }
+        return bigrams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,35 @@
+package com.babble.common.room;
+
+import com.babble.db.entity.Room;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 대기실/호스트 정보 조회용 방 요약 정보 정의.
+ * 방 생성 후 바뀌지 않는 값과 읽은 시점의 진행 여부를 담아 캐시에 보관한다. (진행중인 방만 캐시)
+ */
+@Getter
+public class RoomSummary {
+    private final Long id;
+    private final String title;
+    private final String content;
+    private final Long hostId;
+    private final LocalDateTime createTime;
+    private final boolean isActivate;
+
+    public RoomSummary(Long id, String title, String content, Long hostId, LocalDateTime createTime,
+                       boolean isActivate) {
+        this.id = id;
+        this.title = title;
+        this.content = content;
+        this.hostId = hostId;
+        this.createTime = createTime;
+        this.isActivate = isActivate;
+    }
+
+    public static RoomSummary of(Room room) {
+        return new RoomSummary(room.getId(), room.getTitle(), room.getContent(), room.getHostId(), room.getCreateTime(),
+                room.isActivate());
+    }
+}
@@ -0,0 +1,153 @@
+package com.babble.common.room;
+
+import com.babble.api.service.RoomHistoryService;
+import com.babble.api.service.RoomService;
+import com.babble.common.auth.BabbleUserDetails;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로그인한 사용자의 STOMP 세션 생명주기 추적 정의.
+ * 방 채팅을 구독하면 입장으로 보고, 연결이 끊긴 뒤(브라우저 종료, heartbeat 끊김 포함) grace-ms 동안 다시 연결하지 않으면
+ * 퇴장 API 가 호출되지 않았더라도 참여 정보와 시청 내역을 정리한다.
+ * 한 번도 추적된 연결이 없는 유저는 연결 여부를 알 수 없으므로 정리 대상이 아니다.
+ * 정리는 sweep-interval-ms 마다 모아서 한 번에 처리한다. (시청 내역은 update 한 번, user_room 은 PresenceRegistry checkpoint)
+ */
+@Slf4j
+@Component
+public class SessionLifecycleTracker {
+
+    private static final String ROOM_DESTINATION = "/sub/message/";
+
+    @Autowired
+    PresenceRegistry presenceRegistry;
+
+    @Autowired
+    RoomHistoryService roomHistoryService;
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${babble.presence.grace-ms:30000}")
+    long graceMillis;
+
+    @Value("${babble.presence.sweep-interval-ms:10000}")
+    long sweepIntervalMillis;
+
+    // STOMP 세션 id -> 유저 id, 유저별 연결된 세션 수, 마지막 연결이 끊긴 시각
+    private final Map<String, Long> sessions = new ConcurrentHashMap<>();
+    // 세션 수 증감은 맵 연산(merge/computeIfPresent) 안에서 처리해 마지막 연결이 끊겨 지워지는 것과 엇갈리지 않도록 한다.
+    private final Map<Long, Integer> userSessions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> disconnectedAt = new ConcurrentHashMap<>();
+    private ScheduledExecutorService sweepExecutor;
+    private Counter staleExits;
+
+    @PostConstruct
+    public void start() {
+        staleExits = Counter.builder("babble.presence.stale-exits")
+                .description("연결이 끊겨 자동으로 퇴장 처리한 유저 수")
+                .register(meterRegistry);
+        sweepExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("presence-sweep-%d").setDaemon(true).build());
+        sweepExecutor.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweepExecutor.shutdownNow();
+    }
+
+    // 로그인한 사용자가 방 채팅을 구독하면 입장으로 본다. (입장 API 를 호출하지 않은 경우 보완)
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        String destination = SimpMessageHeaderAccessor.getDestination(event.getMessage().getHeaders());
+        Long userId = userId(event.getUser());
+        if (userId == null || destination == null || !destination.startsWith(ROOM_DESTINATION)) return;
+
+        Long roomId;
+        try {
+            roomId = Long.valueOf(destination.substring(ROOM_DESTINATION.length()));
+        } catch (NumberFormatException ex) {
+            return;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessions.putIfAbsent(sessionId, userId) == null) {
+            userSessions.merge(userId, 1, Integer::sum);
+        }
+        disconnectedAt.remove(userId);
+        // 없는 방이나 종료된 방 번호로 구독한 경우는 입장으로 보지 않는다.
+        if (!roomId.equals(presenceRegistry.getRoomId(userId)) && roomService.isLive(roomId)) {
+            presenceRegistry.enter(userId, roomId);
+        }
+    }
+
+    // 한 유저가 여러 연결(화상, 채팅)을 쓰므로 마지막 연결이 끊긴 시각을 기록해 두고, 새로고침 등으로 다시 연결할 시간을 준다.
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Long userId = sessions.remove(event.getSessionId());
+        if (userId == null) return;
+        Integer remaining = userSessions.computeIfPresent(userId, (id, count) -> count <= 1 ? null : count - 1);
+        if (remaining == null) disconnectedAt.put(userId, System.currentTimeMillis());
+    }
+
+    public boolean isConnected(Long userId) {
+        return userSessions.containsKey(userId);
+    }
+
+    void sweep() {
+        try {
+            long cutoff = System.currentTimeMillis() - graceMillis;
+            List<Long> stale = new ArrayList<>();
+            // 이 서버에서 연결했다가 끊긴 유저만 본다. (익명으로 연결하는 소셜 로그인 유저처럼 추적한 적 없는 유저는 건드리지 않음)
+            for (Map.Entry<Long, Long> entry : disconnectedAt.entrySet()) {
+                Long userId = entry.getKey();
+                long disconnected = entry.getValue();
+                if (disconnected >= cutoff) continue;
+                // 그 사이 다시 연결했거나, 끊긴 뒤 입장 API 로 다시 들어온 경우는 퇴장 처리하지 않는다.
+                if (disconnectedAt.remove(userId, disconnected) && !isConnected(userId)
+                        && presenceRegistry.exitIfEnteredBefore(userId, disconnected)) {
+                    stale.add(userId);
+                }
+            }
+            disconnectedAt.keySet().removeIf(userId -> presenceRegistry.getRoomId(userId) == null);
+
+            if (stale.isEmpty()) return;
+            roomHistoryService.closeOpenHistory(stale);
+            staleExits.increment(stale.size());
+            log.info("closed presence of {} disconnected users", stale.size());
+        } catch (RuntimeException ex) {
+            log.warn("presence sweep failed", ex);
+        }
+    }
+
+    private static Long userId(Principal principal) {
+        if (!(principal instanceof AbstractAuthenticationToken)) return null;
+        Object details = ((AbstractAuthenticationToken) principal).getDetails();
+        if (!(details instanceof BabbleUserDetails)) return null;
+        return ((BabbleUserDetails) details).getUser().getId();
+    }
+}
@@ -0,0 +1,47 @@
+package com.babble.common.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 해시태그 이름 정리 규칙 정의.
+ * 방 생성 시 저장(room_hashtag)과 진행중인 방 목록(LiveRoom)이 같은 해시태그 목록을 갖도록 한 곳에서 정리한다.
+ * 공백으로 나누고 앞뒤 공백/빈 값을 버리며, 컬럼 길이(255)로 자르고, 대소문자만 다른 이름은 처음 것만 남긴다.
+ * (hashtag.name 은 대소문자를 구분하지 않는 collation 이라 대소문자만 다르면 같은 행이다)
+ */
+public final class HashtagNames {
+
+    public static final int MAX_LENGTH = 255;
+
+    private HashtagNames() {
+    }
+
+    public static List<String> parse(String raw) {
+        if (raw == null) return Collections.emptyList();
+        List<String> names = new ArrayList<>();
+        Collections.addAll(names, raw.split("\\s+"));
+        return normalize(names);
+    }
+
+    public static List<String> normalize(Collection<String> names) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name == null) continue;
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) continue;
+            if (trimmed.length() > MAX_LENGTH) trimmed = trimmed.substring(0, MAX_LENGTH);
+            result.putIfAbsent(key(trimmed), trimmed);
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    // 캐시/비교용 키 (디비 collation 과 같이 대소문자 구분 없음)
+    public static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
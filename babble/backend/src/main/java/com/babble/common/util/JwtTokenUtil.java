@@ -33,18 +33,35 @@ import static com.google.common.collect.Lists.newArrayList;
 @Component
 @Slf4j
 public class JwtTokenUtil {
-    @Value("${jwt.secret}")
-    private static String secretKey;
-    private static Integer expirationTime;
-
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String HEADER_STRING = "Authorization";
     public static final String ISSUER = "babble.com";
 
+    // 스프링 빈 생성 시 한 번만 만들어 두고 모든 스레드가 공유 (Algorithm, JWTVerifier, JwtParser 모두 thread-safe)
+    private static volatile JwtTokenUtil instance;
+
+    private final Integer expirationTime;
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final JwtParser parser;
+
     @Autowired
     public JwtTokenUtil(@Value("${jwt.secret}") String secretKey, @Value("${jwt.expiration}") Integer expirationTime) {
-        this.secretKey = secretKey;
         this.expirationTime = expirationTime;
+        this.algorithm = Algorithm.HMAC512(secretKey.getBytes());
+        this.verifier = JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey.getBytes(Charset.forName("UTF-8")))
+                .build();
+        instance = this;
+    }
+
+    private static JwtTokenUtil instance() {
+        JwtTokenUtil util = instance;
+        if (util == null) throw new IllegalStateException("JwtTokenUtil is not initialized");
+        return util;
     }
 
     public static boolean validateToken(String jwt) { // Jwt Token의 유효성을 체크
@@ -53,9 +70,7 @@ public class JwtTokenUtil {
 
     public static Jws<Claims> getClaims(String jwt) {
         try {
-            return Jwts.parser()
-                .setSigningKey(secretKey.getBytes(Charset.forName("UTF-8"))).
-                parseClaimsJws(jwt.replace("{", "")
+            return instance().parser.parseClaimsJws(jwt.replace("{", "")
                 .replace("}",""));
 
         } catch (SignatureException ex) {
@@ -77,21 +92,18 @@ public class JwtTokenUtil {
     }
 
     public static JWTVerifier getVerifier() {
-        return JWT
-                .require(Algorithm.HMAC512(secretKey.getBytes()))
-                .withIssuer(ISSUER)
-                .build();
+        return instance().verifier;
     }
 
     public static String getToken(String email) { //토큰생성
-        Date expires = JwtTokenUtil.getTokenExpiration(expirationTime);
-        System.out.println(expires);
+        JwtTokenUtil util = instance();
+        Date expires = JwtTokenUtil.getTokenExpiration(util.expirationTime);
         return JWT.create()
                 .withSubject(email)
                 .withExpiresAt(expires)
                 .withIssuer(ISSUER)
                 .withIssuedAt(Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant()))
-                .sign(Algorithm.HMAC512(secretKey.getBytes()));
+                .sign(util.algorithm);
     }
 
 
@@ -101,58 +113,29 @@ public class JwtTokenUtil {
         return new Date(now.getTime() + expirationTime);
     }
 
-    public static void handleError(String token) {
+    // "Bearer " 접두어를 제거하고 서명/발급자/만료를 한 번에 검증
+    public static DecodedJWT verify(String token) {
+        return verify(token, true);
+    }
 
+    // logFailure 가 false 면 실패를 debug 로만 남긴다. (STOMP CONNECT 처럼 소셜 로그인 토큰이 섞여 들어와 실패가 흔한 경로)
+    public static DecodedJWT verify(String token, boolean logFailure) {
         try {
-            JWTVerifier verifier = JWT
-                    .require(Algorithm.HMAC512(secretKey.getBytes()))
-                    .withIssuer(ISSUER)
-                    .build();
-
-            DecodedJWT jwt = verifier.verify(token.replace(TOKEN_PREFIX, ""));
-
-            System.out.println("=================== test_verifyJwtToken ===================");
-            System.out.println("jwt token         : " + jwt.getToken());
-            System.out.println("jwt algorithm     : " + jwt.getAlgorithm());
-            System.out.println("jwt claims        : " + jwt.getClaims());
-            System.out.println("jwt issuer        : " + jwt.getIssuer());
-            System.out.println("jwt issuer date   : " + jwt.getIssuedAt());
-            System.out.println("jwt expires date  : " + jwt.getExpiresAt());
-            System.out.println("jwt signature     : " + jwt.getSignature());
-            System.out.println("jwt type          : " + jwt.getType());
-            System.out.println("jwt key id        : " + jwt.getKeyId());
-            System.out.println("jwt id            : " + jwt.getId());
-            System.out.println("jwt subject       : " + jwt.getSubject());
-            System.out.println("jwt content type  : " + jwt.getContentType());
-            System.out.println("jwt audience list : " + jwt.getAudience());
-
-        } catch (AlgorithmMismatchException ex) {
-            log.error("AlgorithmMismatchException");
-            throw ex;
-        } catch (InvalidClaimException ex) {
-            log.error("InvalidClaimException");
-            throw ex;
-        } catch (SignatureGenerationException ex) {
-            log.error("SignatureGenerationException");
-            throw ex;
-        } catch (SignatureVerificationException ex) {
-            log.error("SignatureVerificationException");
-            throw ex;
-        } catch (TokenExpiredException ex) {
-            log.error("TokenExpiredException");
-            throw ex;
-        } catch (JWTCreationException ex) {
-            log.error("JWTCreationException");
-            throw ex;
-        } catch (JWTDecodeException ex) {
-            log.error("JWTDecodeException");
-            throw ex;
-        } catch (JWTVerificationException ex) {
-            log.error("JWTVerificationException");
-            throw ex;
-        } catch (Exception ex) {
-            log.error("Exception");
+            return instance().verifier.verify(token.replace(TOKEN_PREFIX, ""));
+        } catch (RuntimeException ex) {
+            if (logFailure) log.error(ex.getClass().getSimpleName());
+            else log.debug("jwt verification failed: {}", ex.getClass().getSimpleName());
             throw ex;
         }
     }
+
+    public static void handleError(String token) {
+        DecodedJWT jwt = verify(token);
+
+        // 토큰 원문과 서명은 남기지 않는다.
+        if (log.isDebugEnabled()) {
+            log.debug("jwt verified algorithm={} issuer={} subject={} issuedAt={} expiresAt={}",
+                    jwt.getAlgorithm(), jwt.getIssuer(), jwt.getSubject(), jwt.getIssuedAt(), jwt.getExpiresAt());
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package com.babble.common.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 자주 호출되는 경로(채팅/이모지 프레임 등)의 debug 로그를 N 건에 한 번만 남기기 위한 샘플러 정의.
+ * 로그 레벨 확인 이후에만 호출해 debug 가 꺼져 있으면 카운터도 건드리지 않도록 한다.
+ */
+public class LogSampler {
+
+    private final long every;
+    private final AtomicLong count = new AtomicLong();
+
+    // every 가 1 이하면 모든 호출을 기록
+    public LogSampler(long every) {
+        this.every = Math.max(every, 1);
+    }
+
+    public boolean sample() {
+        return every == 1 || count.getAndIncrement() % every == 0;
+    }
+}
@@ -1,5 +1,7 @@
 package com.babble.config;
 
+import com.babble.common.auth.JwtAuthenticator;
+import com.babble.common.chat.ChatRateLimiter;
 import com.babble.common.util.JwtTokenUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +11,8 @@ import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -16,22 +20,63 @@ import org.springframework.util.StringUtils;
 @Slf4j
 public class MyChannelInterceptor implements ChannelInterceptor {
 
+    // CONNECT 시 받은 대화명을 보관하는 세션 속성 이름
+    public static final String NICKNAME_ATTRIBUTE = "nickname";
+
+    @Autowired
+    ChatRateLimiter chatRateLimiter;
+
+    @Autowired
+    JwtAuthenticator jwtAuthenticator;
+
     @Override
     public Message preSend(Message<?> message, MessageChannel channel) {
         StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
         StompCommand command = accessor.getCommand();
-        if (command.compareTo(StompCommand.SUBSCRIBE) == 0) {
-            String destination = accessor.getDestination();
-            System.out.println("구독 주소 : " + destination);
-            System.out.println(message);
+        if (command == null) {
+            // heartbeat 등 STOMP 명령이 없는 프레임
+            return message;
+        }
+        if (command == StompCommand.SEND) {
+            ChatRateLimiter.Type type = ChatRateLimiter.Type.of(accessor.getDestination());
+            if (type != null && !chatRateLimiter.tryAcquireSession(accessor.getSessionId(), type)) {
+                log.debug("rate limited session {} on {}", accessor.getSessionId(), accessor.getDestination());
+                return null;
+            }
+        } else if (command.compareTo(StompCommand.SUBSCRIBE) == 0) {
+            log.debug("subscribe session {} to {}", accessor.getSessionId(), accessor.getDestination());
         } else if (command.compareTo(StompCommand.CONNECT) == 0) {
-            System.out.println("사용자 연결");
-            System.out.println(">>> accessor " + accessor);
-            String jwt = accessor.getFirstNativeHeader("authorization");
-            System.out.println("jwt " + jwt);
+            log.debug("connect session {}", accessor.getSessionId());
+            connect(message, accessor);
         } else if (command.compareTo(StompCommand.DISCONNECT) == 0) {
-            System.out.println("사용자 연결 해제");
+            log.debug("disconnect session {}", accessor.getSessionId());
+            chatRateLimiter.evictSession(accessor.getSessionId());
         }
         return message;
     }
+
+    // 연결 시 한 번만 토큰을 검증해 세션에 인증 정보를 붙인다. 이후 SEND 프레임에는 스프링이 같은 principal 을 채워준다.
+    // 비로그인 사용자도 채팅할 수 있으므로, 검증되지 않는 토큰(소셜 로그인 토큰 등)은 인증 정보 없이 연결만 허용한다.
+    private void connect(Message<?> message, StompHeaderAccessor accessor) {
+        StompHeaderAccessor mutableAccessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (mutableAccessor == null) return;
+
+        // STOMP 헤더는 대소문자를 구분하므로 프론트에서 보내는 소문자 헤더를 먼저 확인
+        String jwt = accessor.getFirstNativeHeader("authorization");
+        if (jwt == null) jwt = accessor.getFirstNativeHeader(JwtTokenUtil.HEADER_STRING);
+        String provider = accessor.getFirstNativeHeader("provider");
+        if (StringUtils.hasText(jwt) && (provider == null || provider.equals("babble"))) {
+            try {
+                Authentication authentication = jwtAuthenticator.authenticate(jwt, false);
+                if (authentication != null) mutableAccessor.setUser(authentication);
+            } catch (RuntimeException ex) {
+                log.debug("stomp session {} connected without principal", accessor.getSessionId());
+            }
+        }
+
+        String nickname = accessor.getFirstNativeHeader(NICKNAME_ATTRIBUTE);
+        if (StringUtils.hasText(nickname) && mutableAccessor.getSessionAttributes() != null) {
+            mutableAccessor.getSessionAttributes().put(NICKNAME_ATTRIBUTE, nickname);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.babble.config;
 
 import com.babble.api.service.UserService;
 import com.babble.common.auth.JwtAuthenticationFilter;
+import com.babble.common.auth.JwtAuthenticator;
 import com.babble.common.auth.BabbleUserDetailService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,6 +34,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JwtAuthenticator jwtAuthenticator;
+
 
     // Password 인코딩 방식에 BCrypt 암호화 방식 사용
     // 암호화에 필요한 passwordEncoder bean등록
@@ -66,7 +70,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .csrf().disable() //csrf 보안 토큰 disable처리
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS) // 토큰 기반 인증이므로 세션 사용 하지않음
                 .and()
-                .addFilter(new JwtAuthenticationFilter(authenticationManager(), userService)) //HTTP 요청에 JWT 토큰 인증 필터를 거치도록 필터를 추가
+                .addFilter(new JwtAuthenticationFilter(authenticationManager(), jwtAuthenticator)) //HTTP 요청에 JWT 토큰 인증 필터를 거치도록 필터를 추가
                 .authorizeRequests() // 요청에 대한 사용권한 체크 (url별 권한 관리를 설정하는 옵션의 시작점)
                 //antMathcers : 권한 관리 대상을 지정하는 옵션으로 url/http 메소드별로 관리가 가능
                 .antMatchers("/api/v1/users/me").authenticated()   // api/v1/uesrs/me 요청은 인증되어야함
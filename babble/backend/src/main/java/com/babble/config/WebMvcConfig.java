@@ -1,20 +1,23 @@
 package com.babble.config;
 
+import com.babble.common.log.AccessLogFilter;
 import com.babble.common.util.JwtTokenUtil;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
-import org.springframework.web.filter.CommonsRequestLoggingFilter;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import javax.servlet.Filter;
-
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    AccessLogFilter accessLogFilter;
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -57,19 +60,10 @@ public class WebMvcConfig implements WebMvcConfigurer {
                     .addResourceLocations("classpath:/dist/js/");
     }
 
-    public Filter requestLoggingFilter() {
-        CommonsRequestLoggingFilter loggingFilter = new CommonsRequestLoggingFilter();
-        loggingFilter.setIncludeClientInfo(true);
-        loggingFilter.setIncludeQueryString(true);
-        loggingFilter.setIncludePayload(true);
-        loggingFilter.setIncludeHeaders(true);
-        loggingFilter.setMaxPayloadLength(64000);
-        return loggingFilter;
-    }
-
+    // 전체 본문/헤더를 남기던 CommonsRequestLoggingFilter 대신 요약 정보만 비동기로 남기는 접근 로그 필터 사용
     @Bean
-    public FilterRegistrationBean loggingFilterRegistration() {
-        FilterRegistrationBean registration = new FilterRegistrationBean(requestLoggingFilter());
+    public FilterRegistrationBean<AccessLogFilter> loggingFilterRegistration() {
+        FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(accessLogFilter);
         registration.addUrlPatterns("/api/*");
         return registration;
     }
@@ -1,11 +1,17 @@
 package com.babble.config;
 
+import com.babble.common.broker.SlowSubscriberPolicy;
+import com.babble.common.chat.CompactMessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
 import org.springframework.messaging.handler.invocation.HandlerMethodReturnValueHandler;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -16,6 +22,45 @@ import java.util.List;
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    @Autowired
+    SlowSubscriberPolicy slowSubscriberPolicy;
+
+    @Autowired
+    CompactMessageConverter compactMessageConverter;
+
+    @Autowired
+    MyChannelInterceptor myChannelInterceptor;
+
+    @Value("${babble.websocket.inbound.core-pool-size:8}")
+    int inboundCorePoolSize;
+    @Value("${babble.websocket.inbound.max-pool-size:16}")
+    int inboundMaxPoolSize;
+    @Value("${babble.websocket.inbound.queue-capacity:10000}")
+    int inboundQueueCapacity;
+
+    @Value("${babble.websocket.outbound.core-pool-size:8}")
+    int outboundCorePoolSize;
+    @Value("${babble.websocket.outbound.max-pool-size:16}")
+    int outboundMaxPoolSize;
+    @Value("${babble.websocket.outbound.queue-capacity:10000}")
+    int outboundQueueCapacity;
+
+    // STOMP heartbeat 간격 (서버 송신, 클라이언트 수신 기대). 응답이 없는 연결은 끊기고 SessionDisconnectEvent 가 발생한다.
+    @Value("${babble.websocket.heartbeat-ms:10000}")
+    long heartbeatMillis;
+
+    @Value("${babble.websocket.broker.scheduler-pool-size:2}")
+    int brokerSchedulerPoolSize;
+
+    // 한 세션에 대한 전송이 이 시간 이상 막히거나 버퍼가 이 크기를 넘으면 연결 종료
+    @Value("${babble.websocket.send-time-limit-ms:10000}")
+    int sendTimeLimit;
+    @Value("${babble.websocket.send-buffer-size-limit:524288}")
+    int sendBufferSizeLimit;
+    @Value("${babble.websocket.message-size-limit:65536}")
+    int messageSizeLimit;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
@@ -24,13 +69,49 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.setApplicationDestinationPrefixes("/pub"); // publisher : message-handling methods로 라우팅됨
-        registry.enableSimpleBroker("/sub"); // subscriber : topic으로 시작되는 메시지가 메세지브로커로 라우팅됨
+        registry.enableSimpleBroker("/sub") // subscriber : topic으로 시작되는 메시지가 메세지브로커로 라우팅됨
+                .setTaskScheduler(brokerTaskScheduler())
+                .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis});
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(slowSubscriberPolicy);
+    }
+
+    // content-type 이 application/vnd.babble.compact 인 경우에만 compact 변환기를 쓰고, 나머지는 기본 변환기(Jackson 등)로 처리
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(compactMessageConverter);
+        return true;
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(new MyChannelInterceptor());
+        registration.interceptors(myChannelInterceptor);
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
     }
 
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(slowSubscriberPolicy);
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
 
-}
\ No newline at end of file
+    @Bean
+    public ThreadPoolTaskScheduler brokerTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(brokerSchedulerPoolSize);
+        scheduler.setThreadNamePrefix("broker-scheduler-");
+        return scheduler;
+    }
+}
@@ -0,0 +1,44 @@
+package com.babble.db.entity;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Chat_Message(채팅 기록) 모델 정의.
+ * 채팅 처리 중에 방을 조회하지 않도록 방은 연관관계 대신 번호(roomId)만 저장한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_chat_message_room", columnList = "roomId"))
+public class ChatMessage extends BaseEntity {
+
+    // 컬럼 길이 : 넘는 값은 저장 전에 잘라낸다. (한 건이라도 넘치면 batch 전체가 실패하므로)
+    public static final int NICKNAME_LENGTH = 255;
+    public static final int CONTENT_LENGTH = 1000;
+
+    Long roomId;
+
+    @Column(length = NICKNAME_LENGTH)
+    String nickname;
+
+    @Column(length = CONTENT_LENGTH)
+    String content;
+
+    LocalDateTime sendTime;
+
+    @Builder
+    public ChatMessage(Long roomId, String nickname, String content, LocalDateTime sendTime) {
+        this.roomId = roomId;
+        this.nickname = nickname;
+        this.content = content;
+        this.sendTime = sendTime;
+    }
+}
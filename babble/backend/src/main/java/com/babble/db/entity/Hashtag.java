@@ -7,6 +7,8 @@ import lombok.ToString;
 
 import javax.persistence.Entity;
 import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,6 +19,7 @@ import java.util.List;
 @Getter
 @Setter
 @ToString
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_hashtag_name", columnNames = "name"))
 public class Hashtag extends BaseEntity {
     String name;
 
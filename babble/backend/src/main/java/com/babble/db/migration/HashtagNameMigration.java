@@ -0,0 +1,90 @@
+package com.babble.db.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 해시태그 이름 유니크 인덱스(uk_hashtag_name) 마이그레이션 정의.
+ * ddl-auto=update 는 중복된 이름이 이미 있으면 유니크 제약 추가에 실패하고 경고만 남기므로,
+ * 서버 시작 시 인덱스가 없으면 같은 이름의 해시태그를 가장 작은 id 로 합치고(room_hashtag, user_hashtag 재지정) 인덱스를 만든다.
+ * 인덱스가 이미 있으면 아무것도 하지 않는다.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class HashtagNameMigration {
+
+    private static final String INDEX_NAME = "uk_hashtag_name";
+
+    // 중복 해시태그 중 가장 작은 id 가 아닌 것
+    private static final String DUPLICATE_IDS =
+            "select id from hashtag where name is not null and id not in (select min(id) from hashtag group by name)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void migrate() {
+        if (hasUniqueNameIndex()) return;
+
+        int removed = new TransactionTemplate(transactionManager).execute(status -> {
+            repoint("room_hashtag", "room_id");
+            repoint("user_hashtag", "user_id");
+            return jdbcTemplate.update("delete from hashtag where name is not null"
+                    + " and id not in (select id from (select min(id) as id from hashtag group by name) t)");
+        });
+        // DDL 은 MySQL 에서 트랜잭션에 묶이지 않으므로 정리가 커밋된 뒤 실행
+        jdbcTemplate.execute("create unique index " + INDEX_NAME + " on hashtag (name)");
+        log.info("created {} after merging {} duplicate hashtags", INDEX_NAME, removed);
+    }
+
+    // 중복 해시태그를 가리키는 연결을 같은 이름의 가장 작은 id 로 옮기고, 그 때문에 생긴 같은 연결은 하나만 남긴다.
+    private void repoint(String table, String ownerColumn) {
+        jdbcTemplate.update("update " + table + " set hashtag_id = (select min(h2.id) from hashtag h1"
+                + " join hashtag h2 on h2.name = h1.name where h1.id = " + table + ".hashtag_id)"
+                + " where hashtag_id in (" + DUPLICATE_IDS + ")");
+        jdbcTemplate.update("delete from " + table + " where id not in (select id from (select min(id) as id from "
+                + table + " group by " + ownerColumn + ", hashtag_id) t)");
+    }
+
+    // 이름이 달라도 name 컬럼 하나로 된 유니크 인덱스가 있으면 이미 적용된 것으로 본다.
+    boolean hasUniqueNameIndex() {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, List<String>> indexes = new HashMap<>();
+            ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, "hashtag", true, false);
+            try {
+                while (rs.next()) {
+                    String columnName = rs.getString("COLUMN_NAME");
+                    if (columnName == null) continue;
+                    indexes.computeIfAbsent(rs.getString("INDEX_NAME"), k -> new ArrayList<>())
+                            .add(columnName.toLowerCase());
+                }
+            } finally {
+                JdbcUtils.closeResultSet(rs);
+            }
+            for (List<String> columns : indexes.values()) {
+                if (columns.size() == 1 && columns.get(0).equals("name")) return true;
+            }
+            return false;
+        });
+    }
+}
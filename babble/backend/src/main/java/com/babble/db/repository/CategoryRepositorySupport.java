@@ -6,6 +6,8 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * 화상회의 방 모델 관련 디비 쿼리 생성을 위한 구현 정의.
  */
@@ -22,4 +24,8 @@ public class CategoryRepositorySupport {
         if(category==null) return null;
         return  category;
     }
+
+    public List<Category> findAllCategory(){
+        return jpaQueryFactory.selectFrom(qCategory).fetch();
+    }
 }
@@ -0,0 +1,32 @@
+package com.babble.db.repository;
+
+import com.babble.db.entity.ChatMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * 채팅 기록 관련 디비 쿼리 생성을 위한 구현 정의.
+ * 저장은 JPA 를 거치지 않고 JDBC batch 로 보내며, rewriteBatchedStatements=true 설정으로 여러 행 insert 한 번으로 바뀐다.
+ */
+@Repository
+public class ChatMessageRepositorySupport {
+
+    private static final String INSERT_SQL =
+            "insert into chat_message (room_id, nickname, content, send_time) values (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<ChatMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setObject(1, message.getRoomId());
+            ps.setString(2, message.getNickname());
+            ps.setString(3, message.getContent());
+            ps.setTimestamp(4, Timestamp.valueOf(message.getSendTime()));
+        });
+    }
+}
@@ -2,15 +2,28 @@ package com.babble.db.repository;
 
 import com.babble.db.entity.Hashtag;
 import com.babble.db.entity.QHashtag;
+import com.querydsl.core.Tuple;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 
 @Repository
 public class HashtagRepositorySupport {
+    // name 에 unique index 가 있으므로 동시에 같은 해시태그를 만들어도 한 행만 남는다.
+    private static final String INSERT_IGNORE_SQL = "insert ignore into hashtag (name) values (?)";
+
     @Autowired
     private JPAQueryFactory jpaQueryFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     QHashtag qHashtag = QHashtag.hashtag;
 
     public Hashtag findHashtagByHashtagName(String hashtag){
@@ -20,4 +33,25 @@ public class HashtagRepositorySupport {
         if(tag==null) return null;
         return tag;
     }
+
+    // 해시태그 이름 -> id 를 IN 쿼리 한 번으로 조회
+    public Map<String, Long> findHashtagIdByNames(Collection<String> names){
+        Map<String, Long> result = new HashMap<>();
+        if(names.isEmpty()) return result;
+        List<Tuple> list = jpaQueryFactory.select(qHashtag.name, qHashtag.id).from(qHashtag)
+                .where(qHashtag.name.in(names)).fetch();
+        for(Tuple tuple : list){
+            result.put(tuple.get(qHashtag.name), tuple.get(qHashtag.id));
+        }
+        return result;
+    }
+
+    // 없는 해시태그를 한 번의 JDBC batch 로 추가 (이미 있는 이름은 무시)
+    public void insertHashtagIgnore(Collection<String> names){
+        List<Object[]> rows = new ArrayList<>();
+        for(String name : names){
+            rows.add(new Object[]{name});
+        }
+        jdbcTemplate.batchUpdate(INSERT_IGNORE_SQL, rows);
+    }
 }
@@ -5,11 +5,17 @@ import com.babble.db.entity.Hashtag;
 import com.babble.db.entity.QHashtag;
 import com.babble.db.entity.QRoomHashtag;
 import com.babble.db.entity.RoomHashtag;
+import com.querydsl.core.Tuple;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * room_hashtag 모델 관련 디비 쿼리 생성을 위한 구현 정의.
@@ -17,8 +23,12 @@ import java.util.List;
 @Repository
 public class RoomHashtagRepositorySupport {
 
+    private static final String INSERT_SQL = "insert into room_hashtag (room_id, hashtag_id) values (?, ?)";
+
     @Autowired
     private JPAQueryFactory jpaQueryFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     QRoomHashtag qRoomHashtag = QRoomHashtag.roomHashtag;
     QHashtag qHashtag = QHashtag.hashtag;
 
@@ -31,6 +41,20 @@ public class RoomHashtagRepositorySupport {
         return list;
     }
 
+    // 방과 해시태그 연결을 한 번의 JDBC batch 로 저장
+    public void insertRoomHashtag(Long roomId, Collection<Long> hashtagIds){
+        List<Object[]> rows = new ArrayList<>();
+        for(Long hashtagId : hashtagIds){
+            rows.add(new Object[]{roomId, hashtagId});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    public long deleteRoomHashtagByRoomId(Long roomId){
+        return jpaQueryFactory.delete(qRoomHashtag)
+                .where(qRoomHashtag.room.id.eq(roomId)).execute();
+    }
+
     public List<RoomHashtag> findRoomHashtagByRoomId(Long roomId){
         List<RoomHashtag> list = jpaQueryFactory.select(qRoomHashtag)
                 .from(qRoomHashtag)
@@ -38,4 +62,23 @@ public class RoomHashtagRepositorySupport {
 
         return list;
     }
+
+    // 한 페이지에 포함된 방들의 해시태그를 IN 쿼리 한 번으로 조회 후 roomId 별로 묶어서 반환
+    public Map<Long, List<String>> findHashtagNameByRoomIds(List<Long> roomIds){
+        Map<Long, List<String>> result = new HashMap<>();
+        if(roomIds.isEmpty()) return result;
+
+        List<Tuple> list = jpaQueryFactory.select(qRoomHashtag.room.id, qHashtag.name)
+                .from(qRoomHashtag)
+                .join(qHashtag).on(qHashtag.id.eq(qRoomHashtag.hashtag.id))
+                .where(qRoomHashtag.room.id.in(roomIds))
+                .orderBy(qRoomHashtag.id.asc())
+                .fetch();
+
+        for(Tuple tuple : list){
+            result.computeIfAbsent(tuple.get(qRoomHashtag.room.id), k -> new ArrayList<>())
+                    .add(tuple.get(qHashtag.name));
+        }
+        return result;
+    }
 }
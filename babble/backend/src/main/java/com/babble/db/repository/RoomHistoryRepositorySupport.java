@@ -7,6 +7,8 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -67,5 +69,22 @@ public class RoomHistoryRepositorySupport {
                 .where(qRoomHistory.user.id.eq(user.getId())).execute();
     }
 
+    // 방의 끝나지 않은 시청 내역을 한 번의 update 로 종료
+    public long closeOpenHistoryByRoomId(Long roomId, LocalDateTime endTime){
+        return jpaQueryFactory.update(qRoomHistory)
+                .set(qRoomHistory.endTime, endTime)
+                .where(qRoomHistory.room.id.eq(roomId))
+                .where(qRoomHistory.endTime.isNull()).execute();
+    }
+
+    // 유저들의 끝나지 않은 시청 내역을 한 번의 update 로 종료
+    public long closeOpenHistory(Collection<Long> userIds, LocalDateTime endTime){
+        if(userIds.isEmpty()) return 0;
+        return jpaQueryFactory.update(qRoomHistory)
+                .set(qRoomHistory.endTime, endTime)
+                .where(qRoomHistory.user.id.in(userIds))
+                .where(qRoomHistory.endTime.isNull()).execute();
+    }
+
 
 }
@@ -2,10 +2,15 @@ package com.babble.db.repository;
 
 import com.babble.db.entity.*;
 import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -29,6 +34,31 @@ public class RoomRepositorySupport {
         return room;
     }
 
+    // 진행 여부만 조회 (relay 모드에서 다른 서버가 만든 방의 입장 확인용)
+    public boolean isActiveRoom(Long roomId){
+        Boolean active = jpaQueryFactory.select(qRoom.isActivate).from(qRoom)
+                .where(qRoom.id.eq(roomId)).fetchOne();
+        return Boolean.TRUE.equals(active);
+    }
+
+    // 방 종료 : 엔티티를 불러오지 않고 update 한 번으로 처리
+    public long closeRoom(Long roomId, Long maxView){
+        return jpaQueryFactory.update(qRoom)
+                .set(qRoom.isActivate, false)
+                .set(qRoom.maxView, maxView)
+                .where(qRoom.id.eq(roomId)).execute();
+    }
+
+
+    public List<Tuple> activeRoomInfo(){
+        List<Tuple> list = jpaQueryFactory.select(qRoom.id, qRoom.title, qRoom.thumbnailUrl, qRoom.createTime, qCategory.name, qUserRoom.room.id.count())
+                .from(qRoom).leftJoin(qCategory).on(qRoom.category.id.eq(qCategory.id))
+                .leftJoin(qUserRoom).on(qRoom.id.eq(qUserRoom.room.id))
+                .where(qRoom.isActivate.eq(true))
+                .groupBy(qRoom.id)
+                .fetch();
+        return list;
+    }
 
     public List<Tuple> bestRoomInfo(int pageNum){
         List<Tuple> list = jpaQueryFactory.select(qRoom.id, qRoom.title, qRoom.thumbnailUrl, qCategory.name, qUserRoom.room.id.count())
@@ -52,12 +82,13 @@ public class RoomRepositorySupport {
         return list;
     }
 
-    public List<Tuple> categoryBestRoomInfo(String categoryName, int pageNum){
-        List<Tuple> list = jpaQueryFactory.select(qRoom.id, qRoom.title, qRoom.thumbnailUrl, qCategory.name, qUserRoom.room.id.count())
-                .from(qRoom).leftJoin(qCategory).on(qRoom.category.id.eq(qCategory.id))
+    // 카테고리 이름은 CategoryRegistry 에서 id 로 바꿔 넘기므로 category 테이블은 조인하지 않는다.
+    public List<Tuple> categoryBestRoomInfo(Long categoryId, int pageNum){
+        List<Tuple> list = jpaQueryFactory.select(qRoom.id, qRoom.title, qRoom.thumbnailUrl, qRoom.category.id, qUserRoom.room.id.count())
+                .from(qRoom)
                 .leftJoin(qUserRoom).on(qRoom.id.eq(qUserRoom.room.id))
                 .where(qRoom.isActivate.eq(true))
-                .where(qCategory.name.eq(categoryName)).limit(10).offset(pageNum)
+                .where(qRoom.category.id.eq(categoryId)).limit(10).offset(pageNum)
                 .groupBy(qRoom.id)
                 .orderBy(qUserRoom.room.id.count().desc())
                 .fetch();
@@ -65,12 +96,13 @@ public class RoomRepositorySupport {
         return list;
     }
 
-    public List<Tuple> categoryRecentRoomInfo(String categoryName, int pageNum){
-        List<Tuple> list = jpaQueryFactory.select(qRoom.id, qRoom.title, qRoom.thumbnailUrl, qCategory.name, qUserRoom.room.id.count())
-                .from(qRoom).leftJoin(qCategory).on(qRoom.category.id.eq(qCategory.id))
+    // 카테고리 이름은 CategoryRegistry 에서 id 로 바꿔 넘기므로 category 테이블은 조인하지 않는다.
+    public List<Tuple> categoryRecentRoomInfo(Long categoryId, int pageNum){
+        List<Tuple> list = jpaQueryFactory.select(qRoom.id, qRoom.title, qRoom.thumbnailUrl, qRoom.category.id, qUserRoom.room.id.count())
+                .from(qRoom)
                 .leftJoin(qUserRoom).on(qRoom.id.eq(qUserRoom.room.id))
                 .where(qRoom.isActivate.eq(true))
-                .where(qCategory.name.eq(categoryName)).limit(10).offset(pageNum)
+                .where(qRoom.category.id.eq(categoryId)).limit(10).offset(pageNum)
                 .groupBy(qRoom.id)
                 .orderBy(qRoom.createTime.desc())
                 .fetch();
@@ -78,13 +110,56 @@ public class RoomRepositorySupport {
         return list;
     }
 
+    // 커서(마지막 방의 시청자수, 생성시간, id) 이후의 인기순 목록 조회. categoryId 가 null 이면 전체
+    public List<Tuple> bestRoomInfoAfter(Long categoryId, Long viewers, LocalDateTime createTime, Long roomId){
+        NumberExpression<Long> count = qUserRoom.room.id.count();
+        JPAQuery<Tuple> query = roomInfoQuery(categoryId);
+        if(roomId != null){
+            query.having(count.lt(viewers)
+                    .or(count.eq(viewers).and(qRoom.createTime.lt(createTime)))
+                    .or(count.eq(viewers).and(qRoom.createTime.eq(createTime)).and(qRoom.id.lt(roomId))));
+        }
+        return query.orderBy(count.desc(), qRoom.createTime.desc(), qRoom.id.desc())
+                .limit(10)
+                .fetch();
+    }
+
+    // 커서(마지막 방의 생성시간, id) 이후의 최신순 목록 조회. categoryId 가 null 이면 전체
+    public List<Tuple> recentRoomInfoAfter(Long categoryId, LocalDateTime createTime, Long roomId){
+        JPAQuery<Tuple> query = roomInfoQuery(categoryId);
+        if(roomId != null){
+            query.where(qRoom.createTime.lt(createTime)
+                    .or(qRoom.createTime.eq(createTime).and(qRoom.id.lt(roomId))));
+        }
+        return query.orderBy(qRoom.createTime.desc(), qRoom.id.desc())
+                .limit(10)
+                .fetch();
+    }
+
+    private JPAQuery<Tuple> roomInfoQuery(Long categoryId){
+        JPAQuery<Tuple> query = jpaQueryFactory.select(qRoom.id, qRoom.title, qRoom.thumbnailUrl, qRoom.createTime, qCategory.name, qUserRoom.room.id.count())
+                .from(qRoom).leftJoin(qCategory).on(qRoom.category.id.eq(qCategory.id))
+                .leftJoin(qUserRoom).on(qRoom.id.eq(qUserRoom.room.id))
+                .where(qRoom.isActivate.eq(true))
+                .groupBy(qRoom.id);
+        if(categoryId != null) query.where(qRoom.category.id.eq(categoryId));
+        return query;
+    }
+
+    // 해시태그는 exists 로 확인한다. room_hashtag 를 조인하면 해시태그 수만큼 user_room 행이 늘어 시청자수가 부풀려진다.
+    private BooleanExpression hashtagContains(String searchName){
+        return JPAExpressions.selectOne().from(qRoomHashtag)
+                .join(qHashtag).on(qRoomHashtag.hashtag.id.eq(qHashtag.id))
+                .where(qRoomHashtag.room.id.eq(qRoom.id), qHashtag.name.contains(searchName))
+                .exists();
+    }
+
     public List<Tuple> searchRoomList(String searchName, int pageNum){
         List<Tuple>  list = jpaQueryFactory.select(qRoom.id, qRoom.title, qRoom.thumbnailUrl, qCategory.name,qUserRoom.room.id.count())
-                .from(qRoom).leftJoin(qRoomHashtag).on(qRoom.id.eq(qRoomHashtag.room.id))
+                .from(qRoom)
                 .leftJoin(qUserRoom).on(qRoom.id.eq(qUserRoom.room.id))
                 .leftJoin(qCategory).on(qRoom.category.id.eq(qCategory.id))
-                .leftJoin(qHashtag).on(qRoomHashtag.hashtag.id.eq(qHashtag.id))
-                .where(qRoom.title.contains(searchName).or(qHashtag.name.contains(searchName)))
+                .where(qRoom.title.contains(searchName).or(hashtagContains(searchName)))
                 .where(qRoom.isActivate.eq(true)).limit(10).offset(pageNum)
                 .groupBy(qRoom.id)
                 .orderBy(qUserRoom.room.id.count().desc())
@@ -92,4 +167,27 @@ public class RoomRepositorySupport {
 
         return list;
     }
+
+    // 커서(마지막 방의 시청자수, 생성시간, id) 이후의 검색 결과 조회. 커서가 없으면 첫 페이지
+    public List<Tuple> searchRoomListAfter(String searchName, Long viewers, LocalDateTime createTime, Long roomId){
+        NumberExpression<Long> count = qUserRoom.room.id.count();
+        JPAQuery<Tuple> query = jpaQueryFactory.select(qRoom.id, qRoom.title, qRoom.thumbnailUrl, qRoom.createTime, qCategory.name, count)
+                .from(qRoom)
+                .leftJoin(qUserRoom).on(qRoom.id.eq(qUserRoom.room.id))
+                .leftJoin(qCategory).on(qRoom.category.id.eq(qCategory.id))
+                .where(qRoom.title.contains(searchName).or(hashtagContains(searchName)))
+                .where(qRoom.isActivate.eq(true))
+                .groupBy(qRoom.id);
+
+        if(roomId != null){
+            query.having(count.lt(viewers)
+                    .or(count.eq(viewers).and(qRoom.createTime.lt(createTime)))
+                    .or(count.eq(viewers).and(qRoom.createTime.eq(createTime)).and(qRoom.id.lt(roomId))));
+        }
+
+        List<Tuple> list = query.orderBy(count.desc(), qRoom.createTime.desc(), qRoom.id.desc())
+                .limit(10)
+                .fetch();
+        return list;
+    }
 }
@@ -2,11 +2,19 @@ package com.babble.db.repository;
 
 
 import com.babble.db.entity.*;
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 @Repository
 public class UserHashtagRepositorySupport {
@@ -48,4 +56,55 @@ public class UserHashtagRepositorySupport {
                 .fetch();
         return list;
     }
+
+    // 여러 해시태그를 한 번의 쿼리로 조회해 이메일 알림을 설정한 유저별로 일치한 해시태그를 묶어서 반환
+    public Map<String, List<String>> getUserByHashtags(Collection<String> hashtags) {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        if (hashtags.isEmpty()) return result;
+
+        List<Tuple> list = userByHashtagsQuery(hashtags).fetch();
+        for (Tuple tuple : list) {
+            result.computeIfAbsent(tuple.get(qUser.email), k -> new ArrayList<>())
+                    .add(tuple.get(qHashtag.name));
+        }
+        return result;
+    }
+
+    // 구독자가 많은 경우를 위해 결과를 메모리에 모두 올리지 않고 유저 단위로 넘겨준다. 트랜잭션 안에서 호출해야 한다.
+    public void streamUserByHashtags(Collection<String> hashtags, BiConsumer<String, List<String>> consumer) {
+        if (hashtags.isEmpty()) return;
+
+        JPAQuery<Tuple> query = userByHashtagsQuery(hashtags);
+        // MySQL 드라이버는 fetchSize 가 Integer.MIN_VALUE 일 때 행 단위 스트리밍
+        query.setHint("org.hibernate.fetchSize", Integer.MIN_VALUE);
+        query.setHint("org.hibernate.readOnly", true);
+
+        try (CloseableIterator<Tuple> iterator = query.iterate()) {
+            String email = null;
+            List<String> tags = new ArrayList<>();
+            while (iterator.hasNext()) {
+                Tuple tuple = iterator.next();
+                String next = tuple.get(qUser.email);
+                if (email != null && !email.equals(next)) {
+                    consumer.accept(email, tags);
+                    tags = new ArrayList<>();
+                }
+                email = next;
+                tags.add(tuple.get(qHashtag.name));
+            }
+            if (email != null) consumer.accept(email, tags);
+        }
+    }
+
+    private JPAQuery<Tuple> userByHashtagsQuery(Collection<String> hashtags) {
+        return jpaQueryFactory.select(qUser.email, qHashtag.name)
+                .from(qHashtag)
+                .join(qUserHashtag).on(qHashtag.id.eq(qUserHashtag.hashtag.id))
+                .join(qUser).on(qUserHashtag.user.id.eq(qUser.id))
+                .where(qHashtag.name.in(hashtags))
+                .where(qUser.alarm.eq(true))
+                // 이메일이 없는 유저는 보낼 곳이 없고, 정렬 맨 앞에 와서 다음 유저의 해시태그와 섞이므로 제외
+                .where(qUser.email.isNotNull())
+                .orderBy(qUser.email.asc(), qHashtag.name.asc());
+    }
 }
@@ -4,11 +4,16 @@ package com.babble.db.repository;
 import com.babble.db.entity.QUserRoom;
 import com.babble.db.entity.User;
 import com.babble.db.entity.UserRoom;
+import com.querydsl.core.Tuple;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 유저_룸 모델 관련 디비 쿼리 생성을 위한 구현 정의.
@@ -16,8 +21,12 @@ import java.util.List;
 @Repository
 public class UserRoomRepositorySupport {
 
+    private static final String INSERT_SQL = "insert into user_room (user_id, room_id) values (?, ?)";
+
     @Autowired
     private JPAQueryFactory jpaQueryFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     QUserRoom qUserRoom =QUserRoom.userRoom;
 
     public UserRoom findUserRoomByUserId(User user){
@@ -33,4 +42,30 @@ public class UserRoomRepositorySupport {
 
         return userRoom;
     }
+
+    // 진행중인 방의 참여 유저 (유저 id, 방 id)
+    public List<Tuple> activeUserRoom(){
+        return jpaQueryFactory.select(qUserRoom.user.id, qUserRoom.room.id).from(qUserRoom)
+                .where(qUserRoom.room.isActivate.eq(true)).fetch();
+    }
+
+    public long deleteUserRoomByRoomId(Long roomId){
+        return jpaQueryFactory.delete(qUserRoom)
+                .where(qUserRoom.room.id.eq(roomId)).execute();
+    }
+
+    public long deleteUserRoomByUserIds(Collection<Long> userIds){
+        if(userIds.isEmpty()) return 0;
+        return jpaQueryFactory.delete(qUserRoom)
+                .where(qUserRoom.user.id.in(userIds)).execute();
+    }
+
+    // 유저 id -> 방 id 를 한 번의 JDBC batch 로 저장
+    public void insertUserRoom(Map<Long, Long> userRooms){
+        List<Object[]> rows = new ArrayList<>();
+        for(Map.Entry<Long, Long> userRoom : userRooms.entrySet()){
+            rows.add(new Object[]{userRoom.getKey(), userRoom.getValue()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
 }
@@ -0,0 +1,48 @@
+package com.babble;
+
+import com.babble.api.controller.MessageController;
+import com.babble.api.request.room.MessageReq;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * actuator prometheus 엔드포인트 수집 테스트 : 대시보드가 쓰는 시계열 이름이 실제로 노출되는지 확인한다.
+ * 테스트에서는 기본적으로 메트릭 export 가 꺼지므로 @AutoConfigureMetrics 로 켠다.
+ */
+@AutoConfigureMetrics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:babble-web;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@ActiveProfiles("test")
+class PrometheusScrapeTest {
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Autowired
+    MessageController messageController;
+
+    @Test
+    void roomListAndChatFrameMetricsAreScraped() {
+        ResponseEntity<String> list = restTemplate.getForEntity("/api/v1/room/all/best/1", String.class);
+        assertThat(list.getStatusCode()).isEqualTo(HttpStatus.OK);
+        messageController.sendMessage(MessageReq.builder().chatroomId(1L).content("hi").nickname("n").build(),
+                SimpMessageHeaderAccessor.create());
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity("/manage/actuator/prometheus", String.class);
+
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .containsPattern("babble_room_list_seconds_bucket\\{[^}]*category=\"all\"[^}]*endpoint=\"best\"[^}]*le=\"0\\.005\"")
+                .containsPattern("babble_room_list_seconds_count\\{[^}]*endpoint=\"best\"[^}]*\\} 1\\.0")
+                .containsPattern("babble_chat_frames_total\\{[^}]*type=\"message\"[^}]*\\} [1-9]");
+    }
+}
@@ -0,0 +1,70 @@
+package com.babble.api.service;
+
+import com.babble.api.response.room.RoomCursorRes;
+import com.babble.api.response.room.RoomRes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * relay 모드 방 목록/입장 확인 테스트 : 다른 서버에서 만든 방(이 서버의 진행중인 방 목록에 없는 방)도 디비 기준으로 보여야 한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:babble-relay;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "babble.broker.mode=relay",
+        "babble.broker.relay.port=0",
+        "babble.broker.relay.secret=test"})
+@ActiveProfiles("test")
+@Sql("/sql/host-fixture.sql")
+@Sql(scripts = "/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class RelayModeRoomServiceTest {
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // 서버 시작 이후 다른 서버에서 만들어진 방
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("insert into user (id, email, alarm) values (2, 'viewer@babble.com', false)");
+        for (long roomId = 1; roomId <= 2; roomId++) {
+            jdbcTemplate.update("insert into room (id, title, content, host_id, is_activate, create_time, max_view, category_id)"
+                    + " values (?, ?, 'content', 1, true, now(), 0, 1)", roomId, "room " + roomId);
+        }
+        jdbcTemplate.update("insert into user_room (user_id, room_id) values (2, 2)");
+    }
+
+    @Test
+    void roomFromOtherNodeIsLiveAndListed() {
+        assertThat(roomService.isLive(1L)).isTrue();
+
+        List<RoomRes> best = roomService.getLiveBestRoomList("all", 0);
+        RoomCursorRes page = roomService.getLiveBestRoomPage("game", null);
+        RoomCursorRes recent = roomService.getLiveRecentRoomPage("all", null);
+
+        assertThat(best).extracting(RoomRes::getId).containsExactly(2L, 1L);
+        assertThat(page.getRooms()).extracting(RoomRes::getId).containsExactly(2L, 1L);
+        assertThat(page.getRooms().get(0).getViewers()).isEqualTo(1L);
+        assertThat(recent.getRooms()).hasSize(2);
+        assertThat(roomService.getLiveBestRoomPage("none", null).getRooms()).isEmpty();
+    }
+
+    // 종료한 서버에서는 디비 반영 전이라도 바로 입장할 수 없어야 한다.
+    @Test
+    void closedRoomIsNotLiveBeforeDatabaseUpdate() {
+        roomService.roomClose(1L, 0L);
+
+        assertThat(roomService.isLive(1L)).isFalse();
+        assertThat(roomService.isLive(2L)).isTrue();
+    }
+}
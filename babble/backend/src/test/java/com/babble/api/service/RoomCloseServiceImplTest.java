@@ -0,0 +1,87 @@
+package com.babble.api.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 방 종료 쿼리 수 회귀 테스트.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql("/sql/host-fixture.sql")
+@Sql(scripts = "/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class RoomCloseServiceImplTest {
+
+    private static final long ROOM_ID = 1;
+    private static final int VIEWERS = 500;
+
+    @Autowired
+    RoomCloseService roomCloseService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("insert into room (id, title, content, host_id, is_activate, create_time, max_view, category_id)"
+                + " values (?, 'room', 'content', 1, true, now(), 0, 1)", ROOM_ID);
+        jdbcTemplate.update("insert into hashtag (id, name) values (1, 'tag')");
+        jdbcTemplate.update("insert into room_hashtag (room_id, hashtag_id) values (?, 1)", ROOM_ID);
+
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> viewers = new ArrayList<>();
+        for (long userId = 2; userId < 2 + VIEWERS; userId++) {
+            users.add(new Object[]{userId, "viewer" + userId + "@babble.com"});
+            viewers.add(new Object[]{userId, ROOM_ID});
+        }
+        jdbcTemplate.batchUpdate("insert into user (id, email, alarm) values (?, ?, false)", users);
+        jdbcTemplate.batchUpdate("insert into user_room (user_id, room_id) values (?, ?)", viewers);
+        jdbcTemplate.batchUpdate("insert into room_history (user_id, room_id, start_time) values (?, ?, now())", viewers);
+    }
+
+    // 시청자 수와 관계없이 방 상태 변경, user_room/room_hashtag 삭제, 시청 내역 종료 4개의 문장만 실행되어야 한다.
+    @Test
+    void closeIssuesFourStatementsForFiveHundredViewers() throws InterruptedException {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        roomCloseService.submit(ROOM_ID, (long) VIEWERS);
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (isActive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(isActive()).isFalse();
+        assertThat(count("select count(*) from user_room where room_id = ?")).isZero();
+        assertThat(count("select count(*) from room_hashtag where room_id = ?")).isZero();
+        assertThat(count("select count(*) from room_history where room_id = ? and end_time is null")).isZero();
+        assertThat(count("select count(*) from room_history where room_id = ? and end_time is not null")).isEqualTo(VIEWERS);
+        assertThat(count("select max_view from room where id = ?")).isEqualTo(VIEWERS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    private boolean isActive() {
+        return jdbcTemplate.queryForObject("select is_activate from room where id = ?", Boolean.class, ROOM_ID);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, ROOM_ID);
+    }
+}
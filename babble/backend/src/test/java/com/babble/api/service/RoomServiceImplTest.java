@@ -0,0 +1,96 @@
+package com.babble.api.service;
+
+import com.babble.api.response.room.RoomRes;
+import com.querydsl.core.Tuple;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 방 목록 조회 쿼리 수 회귀 테스트.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql("/sql/host-fixture.sql")
+@Sql(scripts = "/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class RoomServiceImplTest {
+
+    @Autowired
+    RoomService roomService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        for (long roomId = 1; roomId <= 10; roomId++) {
+            jdbcTemplate.update("insert into room (id, title, content, host_id, is_activate, create_time, max_view, category_id)"
+                    + " values (?, ?, 'content', 1, true, now(), 0, 1)", roomId, "room " + roomId);
+            for (long tag = 1; tag <= 3; tag++) {
+                long hashtagId = roomId * 10 + tag;
+                jdbcTemplate.update("insert into hashtag (id, name) values (?, ?)", hashtagId, "tag" + hashtagId);
+                jdbcTemplate.update("insert into room_hashtag (room_id, hashtag_id) values (?, ?)", roomId, hashtagId);
+            }
+        }
+    }
+
+    // 한 페이지(10개 방)를 조회할 때 목록 1번 + 해시태그 1번, 최대 두 번의 쿼리만 실행되어야 한다.
+    @Test
+    void roomListIssuesAtMostTwoStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Tuple> roomInfo = roomService.getRecentRoomInfo(0);
+        List<RoomRes> rooms = roomService.roomList(roomInfo);
+
+        assertThat(rooms).hasSize(10);
+        assertThat(rooms).allSatisfy(room -> assertThat(room.getHashtag()).hasSize(3));
+        assertThat(statistics.getPrepareStatementCount()).isBetween(1L, 2L);
+    }
+
+    // 진행중인 방 목록에 없는 방(종료 직후 디비 반영 전 포함)은 요약 정보를 캐시하지 않아 입장 확인에서 걸러진다.
+    @Test
+    void roomSummaryOfNonLiveRoomIsNotCached() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(roomService.isLive(1L)).isFalse();
+        assertThat(roomService.getRoomSummary(1L).isActivate()).isTrue();
+        long firstLookup = statistics.getPrepareStatementCount();
+        assertThat(roomService.getRoomSummary(1L)).isNotNull();
+
+        assertThat(firstLookup).isPositive();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(firstLookup * 2);
+    }
+
+    // 해시태그가 여러 개인 방도 시청자수는 user_room 행 수 그대로여야 한다.
+    @Test
+    void searchCountsViewersOncePerRoom() {
+        jdbcTemplate.update("insert into user (id, email, alarm) values (2, 'viewer2@babble.com', false)");
+        jdbcTemplate.update("insert into user (id, email, alarm) values (3, 'viewer3@babble.com', false)");
+        jdbcTemplate.update("insert into user_room (user_id, room_id) values (2, 1)");
+        jdbcTemplate.update("insert into user_room (user_id, room_id) values (3, 1)");
+
+        List<RoomRes> offsetPage = roomService.roomList(roomService.searchRoomList("room 1", 0));
+        List<RoomRes> cursorPage = roomService.searchRoomPage("tag1", null).getRooms();
+
+        assertThat(offsetPage.get(0).getId()).isEqualTo(1L);
+        assertThat(offsetPage.get(0).getViewers()).isEqualTo(2L);
+        assertThat(cursorPage.get(0).getId()).isEqualTo(1L);
+        assertThat(cursorPage.get(0).getViewers()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,113 @@
+package com.babble.common.broker;
+
+import com.babble.api.request.room.MessageReq;
+import com.babble.common.chat.ChatHistory;
+import com.babble.common.chat.CompactMessageConverter;
+import com.babble.common.room.LiveRoomDirectory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 서버 간 중계 브로커 단위 테스트.
+ */
+class RelayRoomBrokerTest {
+
+    private RelayRoomBroker broker;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        // 연결할 수 없는 peer 와 크기 1 의 큐 : 큐에 남을 수 있는 1개를 빼면 모두 버려진다.
+        broker = broker(new ChatHistory(new LiveRoomDirectory(), 10, 10, 1000, 60000, meterRegistry),
+                0, Collections.singletonList("127.0.0.1:1"), 1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        broker.stop();
+    }
+
+    @Test
+    void droppedFramesAreExportedAsCounter() {
+        for (int i = 0; i < 5; i++) {
+            broker.publish("/sub/chat/1", Collections.singletonMap("content", "hi " + i), MimeTypeUtils.APPLICATION_JSON);
+        }
+
+        double dropped = meterRegistry.get("babble.broker.relay.dropped").counter().count();
+        assertThat(dropped).isGreaterThanOrEqualTo(4);
+        assertThat(broker.getDropped()).isGreaterThanOrEqualTo((long) dropped);
+    }
+
+    // 다른 서버에서 보낸 채팅도 이 서버의 최근 채팅에 남고, 다른 서버에서 방을 종료하면 함께 지워진다.
+    @Test
+    void relayedChatIsKeptInHistoryUntilRoomCloses() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ChatHistory receiverHistory = new ChatHistory(new LiveRoomDirectory(), 10, 10, 1000, 60000, registry);
+        int receiverPort = freePort();
+        RelayRoomBroker receiver = broker(receiverHistory, receiverPort, Collections.emptyList(), 100);
+        RelayRoomBroker sender = broker(new ChatHistory(new LiveRoomDirectory(), 10, 10, 1000, 60000, registry),
+                0, Collections.singletonList("127.0.0.1:" + receiverPort), 100);
+        try {
+            MessageReq message = MessageReq.builder().chatroomId(5L).content("hello").nickname("bob").build();
+            sender.publish("/sub/message/5", message, MimeTypeUtils.APPLICATION_JSON);
+            // compact 사본은 같은 메시지이므로 다시 보관하지 않는다.
+            sender.publish("/sub/message-compact/5", message, CompactMessageConverter.COMPACT);
+
+            List<MessageReq> recent = await(() -> receiverHistory.recent(5L), true);
+            assertThat(recent).extracting(MessageReq::getContent).containsExactly("hello");
+
+            sender.closeRoom(5L);
+            assertThat(await(() -> receiverHistory.recent(5L), false)).isEmpty();
+        } finally {
+            sender.stop();
+            receiver.stop();
+        }
+    }
+
+    private RelayRoomBroker broker(ChatHistory chatHistory, int port, List<String> peers, int queueCapacity)
+            throws IOException {
+        RelayRoomBroker relay = new RelayRoomBroker(mock(SimpMessagingTemplate.class), new ObjectMapper(), chatHistory,
+                meterRegistry);
+        relay.bindAddress = "127.0.0.1";
+        relay.port = port;
+        relay.peerAddresses = peers;
+        relay.secret = "secret";
+        relay.queueCapacity = queueCapacity;
+        relay.maxConnections = 1;
+        relay.handshakeTimeoutMs = 1000;
+        relay.start();
+        return relay;
+    }
+
+    // 중계는 비동기이므로 기록이 생기거나(present) 사라질 때까지 기다린다. peer 연결에는 최대 1초 재시도가 걸린다.
+    private static List<MessageReq> await(Supplier<List<MessageReq>> recent, boolean present) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<MessageReq> messages = recent.get();
+        while (messages.isEmpty() == present && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            messages = recent.get();
+        }
+        return messages;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.babble.common.broker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 느린 구독자에게 버릴 수 있는 메시지 구분 테스트.
+ */
+class SlowSubscriberPolicyTest {
+
+    @Test
+    void emojiDestinationsIncludeBatch() {
+        assertThat(SlowSubscriberPolicy.isEmoji("/sub/emoji/1")).isTrue();
+        assertThat(SlowSubscriberPolicy.isEmoji("/sub/emoji-compact/1")).isTrue();
+        assertThat(SlowSubscriberPolicy.isEmoji("/sub/emoji-batch/1")).isTrue();
+        assertThat(SlowSubscriberPolicy.isEmoji("/sub/message/1")).isFalse();
+        assertThat(SlowSubscriberPolicy.isEmoji(null)).isFalse();
+    }
+}
@@ -0,0 +1,63 @@
+package com.babble.common.chat;
+
+import com.babble.api.request.room.MessageReq;
+import com.babble.common.room.LiveRoomDirectory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 최근 채팅 보관소 단위 테스트.
+ */
+class ChatHistoryTest {
+
+    private final ChatHistory history = new ChatHistory(new LiveRoomDirectory(), 3, 10, 5, 60000, new SimpleMeterRegistry());
+
+    @Test
+    void keepsOnlyLastMessagesPerRoom() {
+        for (int i = 0; i < 5; i++) {
+            history.add(MessageReq.builder().chatroomId(1L).content("m" + i).nickname("n").build());
+        }
+
+        List<MessageReq> recent = history.recent(1L);
+        assertThat(recent).extracting(MessageReq::getContent).containsExactly("m2", "m3", "m4");
+    }
+
+    @Test
+    void truncatesLongMessages() {
+        history.add(MessageReq.builder().chatroomId(1L).content("0123456789").nickname("nickname").build());
+
+        MessageReq stored = history.recent(1L).get(0);
+        assertThat(stored.getContent()).isEqualTo("01234");
+        assertThat(stored.getNickname()).isEqualTo("nickn");
+        assertThat(stored.getChatroomId()).isEqualTo(1L);
+    }
+
+    // 종료와 동시에 들어온 메시지가 종료한 방의 기록을 다시 만들지 않아야 한다.
+    @Test
+    void concurrentAddDuringRemoveLeavesNoHistory() throws InterruptedException {
+        int threads = 4;
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ready.countDown();
+                for (int i = 0; i < 20000; i++) {
+                    history.add(MessageReq.builder().chatroomId(1L).content("m" + i).nickname("n").build());
+                }
+                done.countDown();
+            }).start();
+        }
+        ready.await();
+        history.remove(1L);
+        done.await();
+
+        assertThat(history.recent(1L)).isEmpty();
+        history.add(MessageReq.builder().chatroomId(1L).content("late").nickname("n").build());
+        assertThat(history.recent(1L)).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package com.babble.common.chat;
+
+import com.babble.api.request.room.MessageReq;
+import com.babble.db.entity.ChatMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 채팅 기록 저장 테스트 : 컬럼보다 긴 메시지가 섞여도 batch 전체가 저장되어야 한다.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ChatTranscriptWriterTest {
+
+    @Autowired
+    ChatTranscriptWriter chatTranscriptWriter;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from chat_message where room_id = 99");
+    }
+
+    @Test
+    void oversizedMessageDoesNotFailBatch() throws InterruptedException {
+        String longContent = String.join("", Collections.nCopies(64 * 1024, "a"));
+        chatTranscriptWriter.add(MessageReq.builder().chatroomId(99L).content("before").nickname("n").build());
+        chatTranscriptWriter.add(MessageReq.builder().chatroomId(99L).content(longContent).nickname("n").build());
+        chatTranscriptWriter.add(MessageReq.builder().chatroomId(99L).content("after").nickname("n").build());
+        chatTranscriptWriter.flush();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(count()).isEqualTo(3);
+        Integer maxLength = jdbcTemplate.queryForObject(
+                "select max(length(content)) from chat_message where room_id = 99", Integer.class);
+        assertThat(maxLength).isEqualTo(ChatMessage.CONTENT_LENGTH);
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("select count(*) from chat_message where room_id = 99", Long.class);
+    }
+}
@@ -0,0 +1,124 @@
+package com.babble.common.chat;
+
+import com.babble.api.request.room.EmojiReq;
+import com.babble.api.request.room.MessageReq;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * compact 포맷 변환 단위 테스트.
+ */
+class CompactMessageConverterTest {
+
+    private final CompactMessageConverter converter = new CompactMessageConverter();
+
+    @Test
+    void messageRoundTrip() {
+        MessageReq message = MessageReq.builder().chatroomId(12L).content("hello world").nickname("bob").build();
+
+        String encoded = CompactMessageConverter.encode(message);
+        MessageReq decoded = (MessageReq) CompactMessageConverter.decode(encoded);
+
+        assertThat(encoded).isEqualTo("M2:1211:hello world3:bob");
+        assertThat(decoded.getChatroomId()).isEqualTo(12L);
+        assertThat(decoded.getContent()).isEqualTo("hello world");
+        assertThat(decoded.getNickname()).isEqualTo("bob");
+    }
+
+    @Test
+    void emojiRoundTripWithNulls() {
+        EmojiReq emoji = EmojiReq.builder().roomId(null).img("heart").nickname(null).build();
+
+        String encoded = CompactMessageConverter.encode(emoji);
+        EmojiReq decoded = (EmojiReq) CompactMessageConverter.decode(encoded);
+
+        assertThat(encoded).isEqualTo("E-5:heart-");
+        assertThat(decoded.getRoomId()).isNull();
+        assertThat(decoded.getImg()).isEqualTo("heart");
+        assertThat(decoded.getNickname()).isNull();
+    }
+
+    // 구분자(':', '-')나 숫자로 시작하는 내용도 길이로 읽으므로 그대로 복원되어야 한다.
+    @Test
+    void contentContainingSeparatorsRoundTrips() {
+        MessageReq message = MessageReq.builder().chatroomId(1L).content("3:-ab:-").nickname("-").build();
+
+        MessageReq decoded = (MessageReq) CompactMessageConverter.decode(CompactMessageConverter.encode(message));
+
+        assertThat(decoded.getContent()).isEqualTo("3:-ab:-");
+        assertThat(decoded.getNickname()).isEqualTo("-");
+    }
+
+    // 한글, 이모지(서로게이트 쌍)가 섞여도 UTF-8 바이트를 거쳐 그대로 복원되어야 한다.
+    @Test
+    void unicodeRoundTripsThroughBytes() {
+        String content = "안녕하세요 😀👍 🎉";
+        MessageReq message = MessageReq.builder().chatroomId(7L).content(content).nickname("바블").build();
+
+        Message<?> encoded = converter.toMessage(message, headers());
+        Message<byte[]> frame = MessageBuilder.withPayload((byte[]) encoded.getPayload())
+                .setHeader(MessageHeaders.CONTENT_TYPE, CompactMessageConverter.COMPACT)
+                .build();
+        MessageReq decoded = (MessageReq) converter.fromMessage(frame, MessageReq.class);
+
+        assertThat(decoded.getChatroomId()).isEqualTo(7L);
+        assertThat(decoded.getContent()).isEqualTo(content);
+        assertThat(decoded.getNickname()).isEqualTo("바블");
+    }
+
+    // 같은 메시지를 JSON 보다 적은 바이트로 보낸다.
+    @Test
+    void compactFrameIsSmallerThanJson() throws JsonProcessingException {
+        MessageReq message = MessageReq.builder().chatroomId(1234L).content("hello world").nickname("babble-user").build();
+
+        int compact = CompactMessageConverter.encode(message).getBytes(StandardCharsets.UTF_8).length;
+        int json = new ObjectMapper().writeValueAsBytes(message).length;
+
+        assertThat(compact).isLessThan(json);
+    }
+
+    // content-type 이 다르면 이 변환기는 처리하지 않는다.
+    @Test
+    void ignoresOtherContentTypes() {
+        Message<byte[]> json = MessageBuilder.withPayload("{}".getBytes(StandardCharsets.UTF_8))
+                .setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+                .build();
+
+        assertThat(converter.fromMessage(json, MessageReq.class)).isNull();
+    }
+
+    @Test
+    void rejectsMalformedFrames() {
+        assertMalformed("");
+        assertMalformed("X1:1");
+        assertMalformed("M");
+        assertMalformed("M2:12");
+        assertMalformed("M2:1211:hello wor");
+        assertMalformed("M2:12hello");
+        assertMalformed("M2:ab5:hello3:bob");
+        assertMalformed("Mx:12--");
+        assertMalformed("M2:12--extra");
+        assertMalformed("M2147483647:1--");
+        assertMalformed("E1:15:heart");
+    }
+
+    private static void assertMalformed(String text) {
+        assertThatThrownBy(() -> CompactMessageConverter.decode(text))
+                .as(text)
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static MessageHeaders headers() {
+        return new MessageHeaders(Collections.singletonMap(MessageHeaders.CONTENT_TYPE, CompactMessageConverter.COMPACT));
+    }
+}
@@ -0,0 +1,68 @@
+package com.babble.common.chat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * compact 구독자 수 추적 단위 테스트.
+ */
+class CompactSubscriptionsTest {
+
+    private static final String DESTINATION = CompactSubscriptions.MESSAGE_DESTINATION + "1";
+
+    private final CompactSubscriptions subscriptions = new CompactSubscriptions("simple");
+
+    // 구독 수가 0 과 1 을 오가는 동안 동시에 구독/해제해도 남아 있는 구독자는 빠짐없이 세어야 한다.
+    @Test
+    void concurrentSubscribeAndDisconnectKeepCount() throws InterruptedException {
+        int threads = 4;
+        int rounds = 20000;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            String prefix = "t" + t + "-";
+            new Thread(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    subscribe(prefix + i);
+                    disconnect(prefix + i);
+                }
+                subscribe(prefix + "last");
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        assertThat(subscriptions.hasSubscribers(DESTINATION)).isTrue();
+        for (int t = 0; t < threads - 1; t++) {
+            disconnect("t" + t + "-last");
+        }
+        assertThat(subscriptions.hasSubscribers(DESTINATION)).isTrue();
+        disconnect("t" + (threads - 1) + "-last");
+        assertThat(subscriptions.hasSubscribers(DESTINATION)).isFalse();
+    }
+
+    private void subscribe(String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(DESTINATION);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        subscriptions.onSubscribe(new SessionSubscribeEvent(this, message));
+    }
+
+    private void disconnect(String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        subscriptions.onDisconnect(new SessionDisconnectEvent(this, message, sessionId, CloseStatus.NORMAL));
+    }
+}
@@ -0,0 +1,125 @@
+package com.babble.common.chat;
+
+import com.babble.api.response.room.EmojiBatchRes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 이모지 집계기 단위 테스트.
+ */
+class EmojiAggregatorTest {
+
+    private static final String LIKE = "https://localhost:8080/img/emoji_like.1a2b3c4d.png";
+    private static final String HEART = "https://localhost:8080/img/emoji_heart.png";
+
+    private final List<EmojiBatchRes> published = Collections.synchronizedList(new ArrayList<>());
+    private EmojiAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new EmojiAggregator();
+        aggregator.roomBroker = (destination, payload, contentType) -> published.add((EmojiBatchRes) payload);
+    }
+
+    @Test
+    void onlyKnownEmojiAreCounted() {
+        assertThat(EmojiAggregator.isKnown(LIKE)).isTrue();
+        assertThat(EmojiAggregator.isKnown(HEART)).isTrue();
+        assertThat(EmojiAggregator.isKnown("emoji_angry.png")).isFalse();
+        assertThat(EmojiAggregator.isKnown("random-" + System.nanoTime())).isFalse();
+        assertThat(EmojiAggregator.isKnown(null)).isFalse();
+
+        aggregator.add(1L, LIKE);
+        aggregator.add(1L, LIKE);
+        aggregator.add(1L, "attacker-chosen-key");
+        aggregator.flush();
+
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).getCounts()).containsOnlyKeys(LIKE).containsEntry(LIKE, 2L);
+    }
+
+    // 보낸 이모지 키는 지워지므로 다음 window 에는 새로 들어온 반응만 보낸다.
+    @Test
+    void drainedKeysAreRemoved() {
+        aggregator.add(1L, LIKE);
+        aggregator.flush();
+        aggregator.add(1L, HEART);
+        aggregator.flush();
+        aggregator.flush();
+
+        assertThat(published).hasSize(2);
+        assertThat(published.get(1).getCounts()).containsOnlyKeys(HEART);
+    }
+
+    // flush 와 동시에 들어온 반응도 이번 또는 다음 window 에 빠짐없이 보내야 한다.
+    @Test
+    void concurrentAddsAreNotLost() throws InterruptedException {
+        int threads = 4;
+        int perThread = 20000;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) aggregator.add(1L, LIKE);
+                done.countDown();
+            }).start();
+        }
+        while (done.getCount() > 0) aggregator.flush();
+        aggregator.flush();
+
+        long total = 0;
+        synchronized (published) {
+            for (EmojiBatchRes batch : published) total += batch.getCounts().get(LIKE);
+        }
+        assertThat(total).isEqualTo((long) threads * perThread);
+    }
+
+    // 부하 테스트 : 반응이 몰려도 방마다 window 당 한 프레임만 나가고, 모든 반응이 개수에 포함되어야 한다.
+    // 한 건씩 방송하면 구독자마다 reactions 개의 프레임이 나가지만, 묶음 구독자는 published 개만 받는다.
+    @Test
+    void burstIsPublishedOncePerWindow() throws InterruptedException {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        // 종료 시 실행중인 flush 가 끝날 때까지 기다린다.
+        scheduler.setAwaitTerminationSeconds(5);
+        scheduler.initialize();
+        aggregator.brokerTaskScheduler = scheduler;
+        aggregator.windowMillis = 100;
+
+        int threads = 4;
+        long durationMillis = 1000;
+        AtomicLong reactions = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.currentTimeMillis();
+        aggregator.start();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                while (System.currentTimeMillis() - start < durationMillis) {
+                    aggregator.add(1L, LIKE);
+                    reactions.incrementAndGet();
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        aggregator.stop();
+        scheduler.shutdown();
+        aggregator.flush();
+        long elapsed = System.currentTimeMillis() - start;
+
+        long total = 0;
+        synchronized (published) {
+            for (EmojiBatchRes batch : published) total += batch.getCounts().get(LIKE);
+        }
+        assertThat(total).isEqualTo(reactions.get());
+        assertThat((long) published.size()).isLessThanOrEqualTo(elapsed / aggregator.windowMillis + 2);
+        assertThat((long) published.size()).isLessThan(reactions.get() / 100);
+    }
+}
@@ -0,0 +1,51 @@
+package com.babble.common.log;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.ServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 접근 로그 본문 보관/가림 단위 테스트.
+ */
+class AccessLogFilterTest {
+
+    private final AccessLogFilter filter = new AccessLogFilter(new AccessLogWriter(16, 1000, new SimpleMeterRegistry()),
+            1.0, 0, 2048, new String[]{"/api/v1/auth", "/api/v1/users"});
+
+    @Test
+    void bodyOfAuthAndUserApisIsNotCaptured() throws Exception {
+        assertThat(wrapped("/api/v1/auth/login")).isFalse();
+        assertThat(wrapped("/api/v1/users")).isFalse();
+        assertThat(wrapped("/api/v1/users/password")).isFalse();
+        assertThat(wrapped("/api/v1/room")).isTrue();
+        assertThat(wrapped("/api/v1/usersearch")).isTrue();
+    }
+
+    @Test
+    void secretFieldsAreRedacted() {
+        assertThat(AccessLogWriter.redact("{\"email\":\"a@b.com\",\"password\":\"p\\\"w\"}"))
+                .isEqualTo("{\"email\":\"a@b.com\",\"password\":\"***\"}");
+        assertThat(AccessLogWriter.redact("{\"Password\" : \"secret\",\"title\":\"room\"}"))
+                .isEqualTo("{\"Password\" : \"***\",\"title\":\"room\"}");
+        // max-body-length 에서 잘린 값
+        assertThat(AccessLogWriter.redact("{\"email\":\"a@b.com\",\"password\":\"sec"))
+                .isEqualTo("{\"email\":\"a@b.com\",\"password\":\"***\"");
+    }
+
+    private boolean wrapped(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setContent("{\"password\":\"secret\"}".getBytes(StandardCharsets.UTF_8));
+        AtomicReference<ServletRequest> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen.set(req));
+        return seen.get() instanceof ContentCachingRequestWrapper;
+    }
+}
@@ -0,0 +1,63 @@
+package com.babble.common.room;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 카테고리 레지스트리 조회 테스트.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryRegistryTest {
+
+    @Autowired
+    CategoryRegistry categoryRegistry;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from category");
+        categoryRegistry.refresh();
+    }
+
+    // 요청 경로로 들어온 없는 이름은 한 번만 디비에서 찾아본다.
+    @Test
+    void unknownNameIsLookedUpOnce() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(categoryRegistry.get("no-such-category")).isNull();
+            assertThat(categoryRegistry.getId("no-such-category")).isNull();
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // refresh 하면 없다고 기억해둔 이름도 다시 찾는다.
+    @Test
+    void refreshForgetsMisses() {
+        assertThat(categoryRegistry.get("game")).isNull();
+        jdbcTemplate.update("insert into category (id, name) values (1, 'game')");
+        assertThat(categoryRegistry.get("game")).isNull();
+
+        categoryRegistry.refresh();
+
+        assertThat(categoryRegistry.getId("game")).isEqualTo(1L);
+    }
+}
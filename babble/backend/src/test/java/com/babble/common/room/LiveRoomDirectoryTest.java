@@ -0,0 +1,82 @@
+package com.babble.common.room;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 진행중인 방 목록 인덱스 단위 테스트.
+ */
+class LiveRoomDirectoryTest {
+
+    private static final int ROOMS = 50;
+
+    private final LiveRoomDirectory directory = new LiveRoomDirectory();
+    private final LocalDateTime now = LocalDateTime.now();
+
+    // 정렬 위치가 같은 값으로 바뀌어도(시청자 수 0 에서 감소, 같은 방 다시 등록) 목록에서 빠지지 않는다.
+    @Test
+    void reindexWithSameOrderKeepsRoom() {
+        directory.put(room(1L, "before", 0));
+        directory.updateViewers(1L, -1);
+        directory.put(room(1L, "after", 0));
+
+        assertThat(directory.best("all", 0, 10)).extracting(LiveRoom::getTitle).containsExactly("after");
+        assertThat(directory.recent("game", 0, 10)).extracting(LiveRoom::getTitle).containsExactly("after");
+    }
+
+    @Test
+    void cursorContinuesAfterLastRoom() {
+        for (long id = 1; id <= ROOMS; id++) directory.put(room(id, "room " + id, id));
+
+        List<LiveRoom> first = directory.bestAfter("all", null, 10);
+        List<LiveRoom> second = directory.bestAfter("all", RoomCursor.of(first.get(first.size() - 1)), 10);
+
+        assertThat(second).extracting(LiveRoom::getViewers).containsExactly(40L, 39L, 38L, 37L, 36L, 35L, 34L, 33L, 32L, 31L);
+        assertThat(directory.best("all", 10, 10)).isEqualTo(second);
+    }
+
+    // 시청자 수가 계속 바뀌는 동안에도 최신순 목록은 모든 방을, 인기순 목록은 중복 없이 보여야 한다.
+    @Test
+    void listingsStayConsistentWhileViewersChange() throws InterruptedException {
+        for (long id = 1; id <= ROOMS; id++) directory.put(room(id, "room " + id, 0));
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread writer = new Thread(() -> {
+                long i = 0;
+                while (running.get()) {
+                    long roomId = i++ % ROOMS + 1;
+                    directory.updateViewers(roomId, 1);
+                    directory.updateViewers(roomId, -1);
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+
+        try {
+            for (int i = 0; i < 2000; i++) {
+                assertThat(directory.recent("all", 0, ROOMS)).hasSize(ROOMS);
+                List<LiveRoom> best = directory.best("all", 0, ROOMS);
+                Set<Long> ids = new HashSet<>();
+                for (LiveRoom room : best) assertThat(ids.add(room.getId())).isTrue();
+            }
+        } finally {
+            running.set(false);
+            for (Thread writer : writers) writer.join();
+        }
+        assertThat(directory.best("all", 0, ROOMS)).hasSize(ROOMS);
+    }
+
+    private LiveRoom room(Long id, String title, long viewers) {
+        return new LiveRoom(id, title, null, "game", now.minusSeconds(id), viewers, new ArrayList<>());
+    }
+}
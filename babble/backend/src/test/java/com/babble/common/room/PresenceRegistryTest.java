@@ -0,0 +1,124 @@
+package com.babble.common.room;
+
+import com.babble.api.service.UserRoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 참여 정보 checkpoint 단위 테스트.
+ */
+class PresenceRegistryTest {
+
+    private static final long MISSING_ROOM = 99L;
+    private static final long LIVE_ROOM = 10L;
+
+    private PresenceRegistry registry;
+    private UserRoomService userRoomService;
+
+    @BeforeEach
+    void setUp() {
+        userRoomService = mock(UserRoomService.class);
+        registry = new PresenceRegistry();
+        registry.liveRoomDirectory = new LiveRoomDirectory();
+        registry.userRoomService = userRoomService;
+        registry.checkpointIntervalMillis = 60_000;
+        registry.closedTtlMs = 60_000;
+        registry.start();
+        registry.liveRoomDirectory.put(new LiveRoom(LIVE_ROOM, "title", null, null,
+                LocalDateTime.now(), 0, new ArrayList<>()));
+        // 없는 방으로의 입장이 섞이면 외래키 위반으로 실패한다.
+        doAnswer(invocation -> {
+            Map<Long, Long> presence = invocation.getArgument(0);
+            if (presence.containsValue(MISSING_ROOM)) throw new DataIntegrityViolationException("fk_user_room_room");
+            return null;
+        }).when(userRoomService).checkpoint(anyMap());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        registry.stop();
+    }
+
+    // 제약 조건에 걸리는 유저만 버리고 나머지는 반영하며, 버린 유저는 다시 시도하지 않는다.
+    @Test
+    void constraintViolationIsolatesFailingUser() {
+        registry.enter(1L, 10L);
+        registry.enter(2L, MISSING_ROOM);
+
+        registry.checkpoint();
+
+        verify(userRoomService).checkpoint(Collections.singletonMap(1L, 10L));
+        assertThat(registry.getRoomId(1L)).isEqualTo(10L);
+        assertThat(registry.getRoomId(2L)).isNull();
+        assertThat(registry.count(MISSING_ROOM)).isZero();
+
+        registry.checkpoint();
+        verify(userRoomService, times(3)).checkpoint(any());
+    }
+
+    // 종료와 동시에 들어온 입장은 종료 전에 들어와 내보내지거나 거절되어야 하며, 종료 후 방이 다시 생기지 않는다.
+    @Test
+    void concurrentEnterDuringCloseLeavesNoPresence() throws InterruptedException {
+        int threads = 4;
+        int usersPerThread = 2000;
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            long firstUser = (long) t * usersPerThread;
+            new Thread(() -> {
+                ready.countDown();
+                for (long userId = firstUser; userId < firstUser + usersPerThread; userId++) {
+                    registry.enter(userId, LIVE_ROOM);
+                }
+                done.countDown();
+            }).start();
+        }
+        ready.await();
+        registry.closeRoom(LIVE_ROOM);
+        done.await();
+
+        assertThat(registry.count(LIVE_ROOM)).isZero();
+        for (long userId = 0; userId < (long) threads * usersPerThread; userId++) {
+            assertThat(registry.getRoomId(userId)).isNull();
+        }
+        assertThat(registry.enter(1L, LIVE_ROOM)).isFalse();
+    }
+
+    // 동시에 입장/퇴장해도 진행중인 방 목록의 시청자 수는 실제 참여 유저 수와 같아야 한다.
+    @Test
+    void concurrentEnterAndExitKeepViewerCount() throws InterruptedException {
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            long userId = t;
+            new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    registry.enter(userId, LIVE_ROOM);
+                    registry.exit(userId);
+                }
+                registry.enter(userId, LIVE_ROOM);
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        assertThat(registry.count(LIVE_ROOM)).isEqualTo(threads);
+        assertThat(registry.liveRoomDirectory.get(LIVE_ROOM).getViewers()).isEqualTo(threads);
+    }
+}
@@ -0,0 +1,72 @@
+package com.babble.common.room;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 진행중인 방 검색 n-gram 색인 단위 테스트.
+ */
+class RoomSearchIndexTest {
+
+    private final RoomSearchIndex index = new RoomSearchIndex();
+    private final LocalDateTime now = LocalDateTime.now();
+
+    // 한 글자 검색어는 1-gram 으로 찾는다.
+    @Test
+    void singleCharacterKeywordUsesUnigram() {
+        index.add(room(1L, "서울 맛집 탐방"));
+        index.add(room(2L, "게임 같이 해요"));
+
+        assertThat(index.candidates("맛")).containsExactly(1L);
+        assertThat(index.candidates("임")).containsExactly(2L);
+        assertThat(index.candidates("책")).isEmpty();
+    }
+
+    // 두 글자 이상은 2-gram 교집합으로 찾고, 대소문자는 구분하지 않는다.
+    @Test
+    void longerKeywordUsesBigrams() {
+        index.add(room(1L, "서울 맛집 탐방"));
+        index.add(room(2L, "맛있는 집밥"));
+        index.add(room(3L, "Spring Study", "Java"));
+
+        assertThat(index.candidates("맛집")).containsExactly(1L);
+        assertThat(index.candidates("SPRING")).containsExactly(3L);
+        assertThat(index.candidates("jav")).containsExactly(3L);
+        assertThat(index.candidates("")).isEmpty();
+    }
+
+    // 2-gram 은 모두 있지만 이어지지 않은 경우 후보에는 들어가고, matches 로 걸러진다.
+    @Test
+    void candidatesAreRecheckedWithMatches() {
+        LiveRoom real = room(1L, "맛집탐방");
+        LiveRoom falsePositive = room(2L, "집탐구 맛집");
+        index.add(real);
+        index.add(falsePositive);
+
+        assertThat(index.candidates("맛집탐")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(RoomSearchIndex.matches(real, "맛집탐")).isTrue();
+        assertThat(RoomSearchIndex.matches(falsePositive, "맛집탐")).isFalse();
+        assertThat(RoomSearchIndex.matches(room(3L, "제목", "롤토체스"), "토체")).isTrue();
+    }
+
+    // 방이 닫히면 색인에서 빠지고, 같은 gram 을 가진 다른 방은 남는다.
+    @Test
+    void removedRoomIsNoLongerFound() {
+        LiveRoom closed = room(1L, "주말 맛집");
+        index.add(closed);
+        index.add(room(2L, "평일 맛집"));
+
+        index.remove(closed);
+
+        assertThat(index.candidates("맛집")).containsExactly(2L);
+        assertThat(index.candidates("주말")).isEmpty();
+    }
+
+    private LiveRoom room(Long id, String title, String... hashtags) {
+        return new LiveRoom(id, title, null, "game", now, 0, Arrays.asList(hashtags));
+    }
+}
@@ -0,0 +1,148 @@
+package com.babble.common.room;
+
+import com.babble.api.service.RoomHistoryService;
+import com.babble.api.service.RoomService;
+import com.babble.common.auth.BabbleUserDetails;
+import com.babble.db.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 연결이 끊긴 유저 자동 퇴장 단위 테스트.
+ */
+class SessionLifecycleTrackerTest {
+
+    private SessionLifecycleTracker tracker;
+    private PresenceRegistry presenceRegistry;
+    private RoomHistoryService roomHistoryService;
+    private RoomService roomService;
+
+    @BeforeEach
+    void setUp() {
+        presenceRegistry = mock(PresenceRegistry.class);
+        roomHistoryService = mock(RoomHistoryService.class);
+        roomService = mock(RoomService.class);
+        tracker = new SessionLifecycleTracker();
+        tracker.presenceRegistry = presenceRegistry;
+        tracker.roomHistoryService = roomHistoryService;
+        tracker.roomService = roomService;
+        when(roomService.isLive(anyLong())).thenReturn(true);
+        tracker.graceMillis = 0;
+    }
+
+    // 익명으로 연결하는 유저처럼 추적된 연결이 없는 유저는 오래 전에 입장했어도 퇴장시키지 않는다.
+    @Test
+    void neverConnectedUserIsNotExited() throws InterruptedException {
+        when(presenceRegistry.getUserIds()).thenReturn(Collections.singleton(1L));
+        when(presenceRegistry.getEnteredAt(1L)).thenReturn(0L);
+        Thread.sleep(2);
+
+        tracker.sweep();
+
+        verify(presenceRegistry, never()).exitIfEnteredBefore(eq(1L), anyLong());
+        verify(roomHistoryService, never()).closeOpenHistory(anyList());
+    }
+
+    @Test
+    void disconnectedUserIsExitedAfterGrace() throws InterruptedException {
+        when(presenceRegistry.getRoomId(2L)).thenReturn(10L);
+        when(presenceRegistry.exitIfEnteredBefore(eq(2L), anyLong())).thenReturn(true);
+        tracker.onSubscribe(new SessionSubscribeEvent(this, subscribe("s1", "/sub/message/10"), principal(2L)));
+        tracker.onDisconnect(new SessionDisconnectEvent(this, disconnect("s1"), "s1", CloseStatus.NORMAL));
+        Thread.sleep(2);
+
+        tracker.sweep();
+
+        verify(presenceRegistry).exitIfEnteredBefore(eq(2L), anyLong());
+        verify(roomHistoryService).closeOpenHistory(Collections.singletonList(2L));
+    }
+
+    @Test
+    void connectedUserIsNotExited() throws InterruptedException {
+        when(presenceRegistry.getRoomId(3L)).thenReturn(10L);
+        tracker.onSubscribe(new SessionSubscribeEvent(this, subscribe("s1", "/sub/message/10"), principal(3L)));
+        Thread.sleep(2);
+
+        tracker.sweep();
+
+        verify(presenceRegistry, never()).exitIfEnteredBefore(eq(3L), anyLong());
+    }
+
+    // 없는 방이나 종료된 방을 구독하면 입장시키지 않는다. (user_room 외래키 위반으로 checkpoint 가 실패하지 않도록)
+    @Test
+    void subscribingToClosedRoomDoesNotEnter() {
+        when(roomService.isLive(99L)).thenReturn(false);
+        tracker.onSubscribe(new SessionSubscribeEvent(this, subscribe("s1", "/sub/message/99"), principal(4L)));
+
+        verify(presenceRegistry, never()).enter(anyLong(), anyLong());
+    }
+
+    // 같은 유저의 연결이 동시에 붙고 끊겨도 남아 있는 연결은 빠짐없이 세어야 한다.
+    @Test
+    void concurrentSessionsOfSameUserKeepCount() throws InterruptedException {
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            String prefix = "t" + t + "-";
+            new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    tracker.onSubscribe(new SessionSubscribeEvent(this, subscribe(prefix + i, "/sub/message/10"), principal(5L)));
+                    tracker.onDisconnect(new SessionDisconnectEvent(this, disconnect(prefix + i), prefix + i, CloseStatus.NORMAL));
+                }
+                tracker.onSubscribe(new SessionSubscribeEvent(this, subscribe(prefix + "last", "/sub/message/10"), principal(5L)));
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        for (int t = 0; t < threads - 1; t++) {
+            tracker.onDisconnect(new SessionDisconnectEvent(this, disconnect("t" + t + "-last"), "t" + t + "-last", CloseStatus.NORMAL));
+        }
+        assertThat(tracker.isConnected(5L)).isTrue();
+        String last = "t" + (threads - 1) + "-last";
+        tracker.onDisconnect(new SessionDisconnectEvent(this, disconnect(last), last, CloseStatus.NORMAL));
+        assertThat(tracker.isConnected(5L)).isFalse();
+    }
+
+    private static Message<byte[]> subscribe(String sessionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> disconnect(String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static UsernamePasswordAuthenticationToken principal(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken("user" + userId, null,
+                Collections.emptyList());
+        token.setDetails(new BabbleUserDetails(user));
+        return token;
+    }
+}
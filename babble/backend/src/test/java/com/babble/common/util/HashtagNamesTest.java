@@ -0,0 +1,28 @@
+package com.babble.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 해시태그 이름 정리 규칙 단위 테스트.
+ */
+class HashtagNamesTest {
+
+    @Test
+    void dropsBlanksAndCaseInsensitiveDuplicates() {
+        assertThat(HashtagNames.parse(" java  Java spring\tjava ")).containsExactly("java", "spring");
+        assertThat(HashtagNames.parse("")).isEmpty();
+        assertThat(HashtagNames.parse(null)).isEmpty();
+        assertThat(HashtagNames.normalize(Arrays.asList(" a ", "", null, "A"))).containsExactly("a");
+    }
+
+    @Test
+    void truncatesToColumnLength() {
+        String longName = String.join("", Collections.nCopies(300, "x"));
+        assertThat(HashtagNames.parse(longName).get(0)).hasSize(HashtagNames.MAX_LENGTH);
+    }
+}
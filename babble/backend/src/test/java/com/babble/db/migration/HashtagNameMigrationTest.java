@@ -0,0 +1,55 @@
+package com.babble.db.migration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 해시태그 중복 정리 + 유니크 인덱스 마이그레이션 테스트.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql("/sql/host-fixture.sql")
+@Sql(scripts = "/sql/cleanup.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class HashtagNameMigrationTest {
+
+    @Autowired
+    HashtagNameMigration hashtagNameMigration;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void mergesDuplicatesAndCreatesIndex() {
+        // 제약이 없던 예전 스키마에 중복 이름이 쌓인 상태를 만든다.
+        jdbcTemplate.execute("alter table hashtag drop constraint uk_hashtag_name");
+        assertThat(hashtagNameMigration.hasUniqueNameIndex()).isFalse();
+
+        jdbcTemplate.update("insert into room (id, title, content, host_id, is_activate, create_time, max_view, category_id)"
+                + " values (1, 'room', 'content', 1, true, now(), 0, 1)");
+        jdbcTemplate.update("insert into hashtag (id, name) values (1, 'lol'), (2, 'lol'), (3, 'lol'), (4, 'music')");
+        jdbcTemplate.update("insert into room_hashtag (id, room_id, hashtag_id) values (1, 1, 2), (2, 1, 3), (3, 1, 4)");
+        jdbcTemplate.update("insert into user_hashtag (id, user_id, hashtag_id) values (1, 1, 3)");
+
+        hashtagNameMigration.migrate();
+
+        assertThat(hashtagNameMigration.hasUniqueNameIndex()).isTrue();
+        assertThat(jdbcTemplate.queryForList("select id from hashtag order by id", Long.class)).containsExactly(1L, 4L);
+        assertThat(jdbcTemplate.queryForList("select hashtag_id from room_hashtag order by hashtag_id", Long.class))
+                .containsExactly(1L, 4L);
+        assertThat(jdbcTemplate.queryForList("select hashtag_id from user_hashtag", Long.class)).containsExactly(1L);
+        assertThatThrownBy(() -> jdbcTemplate.update("insert into hashtag (id, name) values (5, 'music')"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        // 다시 실행해도 아무것도 하지 않는다.
+        hashtagNameMigration.migrate();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from hashtag", Long.class)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,9 @@
+-- 방 관련 통합 테스트 정리 (외래키 순서대로 삭제)
+delete from room_history;
+delete from user_room;
+delete from room_hashtag;
+delete from user_hashtag;
+delete from hashtag;
+delete from room;
+delete from user;
+delete from category;
@@ -0,0 +1,3 @@
+-- 방 관련 통합 테스트 공통 데이터 : 카테고리 1 과 방장 유저 1
+insert into category (id, name) values (1, 'game');
+insert into user (id, email, alarm) values (1, 'host@babble.com', false);